@@ -0,0 +1,219 @@
+package org.firstinspires.ftc.teamcode.Crawler.Control;
+
+/**
+ * A one-dimensional move from 0 to a distance, with its velocity and acceleration limited,
+ * and optionally its jerk as well.
+ * <p>
+ * The profile is worked out once when it is built and stored as position, velocity and
+ * acceleration tables at a fixed time step. {@link #sample} is then an index and a lerp,
+ * so a control loop pays the same per tick however long the move is.
+ * Units are whatever the limits are given in (e.g. meters and seconds).
+ */
+public class MotionProfile {
+    // Jerk in, hold, jerk out, cruise, and the same three mirrored to stop
+    private static final int MAX_SEGMENTS = 7;
+
+    private final double distance;
+    private final double duration;
+    private final double sampleDt;
+    private final double[] positions;
+    private final double[] velocities;
+    private final double[] accelerations;
+
+    private MotionProfile(double distance, double[] durations, double[] startAccels, double[] jerks, int segments, double sampleDt) {
+        double sign = Math.signum(distance);
+        this.distance = distance;
+        this.sampleDt = sampleDt;
+
+        // 1. State at the start of every segment
+        double[] t0 = new double[segments + 1];
+        double[] p0 = new double[segments + 1];
+        double[] v0 = new double[segments + 1];
+        double[] a0 = new double[segments];
+        for (int i = 0; i < segments; i++) {
+            double d = durations[i];
+            double a = startAccels[i];
+            double j = jerks[i];
+            a0[i] = a;
+            t0[i + 1] = t0[i] + d;
+            p0[i + 1] = p0[i] + v0[i] * d + a * d * d / 2 + j * d * d * d / 6;
+            v0[i + 1] = v0[i] + a * d + j * d * d / 2;
+        }
+        duration = t0[segments];
+
+        // 2. Tabulate at the sample step, scaling out the small error left by rounding in the solve
+        int count = Math.max(2, (int) Math.ceil(duration / sampleDt) + 1);
+        double scale = p0[segments] == 0 ? 0 : Math.abs(distance) / p0[segments];
+        positions = new double[count];
+        velocities = new double[count];
+        accelerations = new double[count];
+        int seg = 0;
+        for (int k = 0; k < count; k++) {
+            double t = Math.min(k * sampleDt, duration);
+            while (seg < segments - 1 && t > t0[seg + 1]) seg++;
+            double d = t - t0[seg];
+            double j = segments == 0 ? 0 : jerks[seg];
+            double a = segments == 0 ? 0 : a0[seg];
+            positions[k] = sign * scale * (p0[seg] + v0[seg] * d + a * d * d / 2 + j * d * d * d / 6);
+            velocities[k] = sign * scale * (v0[seg] + a * d + j * d * d / 2);
+            accelerations[k] = sign * scale * (a + j * d);
+        }
+        positions[count - 1] = distance;
+        velocities[count - 1] = 0;
+        accelerations[count - 1] = 0;
+    }
+
+    private MotionProfile(double distance, double sampleDt, double[] positions, double[] velocities, double[] accelerations) {
+        this.distance = distance;
+        this.sampleDt = sampleDt;
+        this.duration = (positions.length - 1) * sampleDt;
+        this.positions = positions;
+        this.velocities = velocities;
+        this.accelerations = accelerations;
+    }
+
+    /**
+     * A profile from tables made earlier (e.g. loaded from a trajectory file). The arrays are
+     * used as they are, not copied.
+     */
+    public static MotionProfile fromSamples(double sampleDt, double[] positions, double[] velocities, double[] accelerations) {
+        if (sampleDt <= 0) throw new IllegalArgumentException("Sample step must be positive");
+        if (positions.length < 2 || velocities.length != positions.length || accelerations.length != positions.length) {
+            throw new IllegalArgumentException("Profile needs at least two samples of each");
+        }
+        return new MotionProfile(positions[positions.length - 1], sampleDt, positions, velocities, accelerations);
+    }
+
+    /**
+     * Constant acceleration up to cruise, constant deceleration down. Short moves never
+     * reach cruise and become a triangle.
+     * @param sampleDt table step, normally the control loop period
+     */
+    public static MotionProfile trapezoid(double distance, double maxVelocity, double maxAcceleration, double sampleDt) {
+        checkLimits(maxVelocity, maxAcceleration, sampleDt);
+        double d = Math.abs(distance);
+        double v = Math.min(maxVelocity, Math.sqrt(d * maxAcceleration));
+        double rampTime = v / maxAcceleration;
+        double cruiseTime = v == 0 ? 0 : (d - v * rampTime) / v;
+
+        double[] durations = {rampTime, Math.max(0, cruiseTime), rampTime};
+        double[] accels = {maxAcceleration, 0, -maxAcceleration};
+        double[] jerks = new double[3];
+        return new MotionProfile(distance, durations, accels, jerks, 3, sampleDt);
+    }
+
+    /**
+     * Jerk-limited (S-curve) profile: acceleration ramps in and out instead of stepping,
+     * which keeps the wheels from slipping at the start and the robot from rocking at the end.
+     * Peak velocity and acceleration are lowered as needed for short moves.
+     */
+    public static MotionProfile sCurve(double distance, double maxVelocity, double maxAcceleration, double maxJerk, double sampleDt) {
+        checkLimits(maxVelocity, maxAcceleration, sampleDt);
+        if (maxJerk <= 0) throw new IllegalArgumentException("Jerk limit must be positive");
+        double d = Math.abs(distance);
+
+        // 1. Highest cruise velocity whose speed-up and slow-down fit in the distance
+        double v = maxVelocity;
+        if (2 * rampDistance(v, maxAcceleration, maxJerk) > d) {
+            double lo = 0;
+            double hi = maxVelocity;
+            for (int i = 0; i < 60; i++) {
+                double mid = (lo + hi) / 2;
+                if (2 * rampDistance(mid, maxAcceleration, maxJerk) > d) hi = mid; else lo = mid;
+            }
+            v = lo;
+        }
+
+        // 2. Speed-up: jerk in, hold acceleration (if it's reached), jerk out. Slow-down mirrors it.
+        double a = Math.min(maxAcceleration, Math.sqrt(v * maxJerk));
+        double jerkTime = a / maxJerk;
+        double holdTime = a == 0 ? 0 : Math.max(0, v / a - jerkTime);
+        double cruiseTime = v == 0 ? 0 : Math.max(0, (d - 2 * rampDistance(v, maxAcceleration, maxJerk)) / v);
+
+        double[] durations = new double[MAX_SEGMENTS];
+        double[] accels = new double[MAX_SEGMENTS];
+        double[] jerks = new double[MAX_SEGMENTS];
+        int n = 0;
+        durations[n] = jerkTime;   accels[n] = 0;  jerks[n++] = maxJerk;
+        durations[n] = holdTime;   accels[n] = a;  jerks[n++] = 0;
+        durations[n] = jerkTime;   accels[n] = a;  jerks[n++] = -maxJerk;
+        durations[n] = cruiseTime; accels[n] = 0;  jerks[n++] = 0;
+        durations[n] = jerkTime;   accels[n] = 0;  jerks[n++] = -maxJerk;
+        durations[n] = holdTime;   accels[n] = -a; jerks[n++] = 0;
+        durations[n] = jerkTime;   accels[n] = -a; jerks[n++] = maxJerk;
+        return new MotionProfile(distance, durations, accels, jerks, n, sampleDt);
+    }
+
+    /**
+     * Setpoint at a time since the start of the move. Past the end it holds the final position.
+     * @param out receives position, velocity, acceleration
+     */
+    public void sample(double t, double[] out) {
+        if (t <= 0) {
+            out[0] = positions[0];
+            out[1] = velocities[0];
+            out[2] = accelerations[0];
+            return;
+        }
+        double index = t / sampleDt;
+        int i = (int) index;
+        if (i >= positions.length - 1) {
+            int last = positions.length - 1;
+            out[0] = positions[last];
+            out[1] = velocities[last];
+            out[2] = accelerations[last];
+            return;
+        }
+        double f = index - i;
+        out[0] = positions[i] + (positions[i + 1] - positions[i]) * f;
+        out[1] = velocities[i] + (velocities[i + 1] - velocities[i]) * f;
+        out[2] = accelerations[i] + (accelerations[i + 1] - accelerations[i]) * f;
+    }
+
+    public double getDuration() {
+        return duration;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getSampleDt() {
+        return sampleDt;
+    }
+
+    public int getSampleCount() {
+        return positions.length;
+    }
+
+    public double getPositionSample(int i) {
+        return positions[i];
+    }
+
+    public double getVelocitySample(int i) {
+        return velocities[i];
+    }
+
+    public double getAccelerationSample(int i) {
+        return accelerations[i];
+    }
+
+    public boolean isFinished(double t) {
+        return t >= duration;
+    }
+
+    // Distance covered getting from rest to v under the acceleration and jerk limits
+    private static double rampDistance(double v, double maxAcceleration, double maxJerk) {
+        double a = Math.min(maxAcceleration, Math.sqrt(v * maxJerk));
+        if (a == 0) return 0;
+        double rampTime = v / a + a / maxJerk;
+        return v * rampTime / 2;
+    }
+
+    private static void checkLimits(double maxVelocity, double maxAcceleration, double sampleDt) {
+        if (maxVelocity <= 0 || maxAcceleration <= 0) {
+            throw new IllegalArgumentException("Velocity and acceleration limits must be positive");
+        }
+        if (sampleDt <= 0) throw new IllegalArgumentException("Sample step must be positive");
+    }
+}
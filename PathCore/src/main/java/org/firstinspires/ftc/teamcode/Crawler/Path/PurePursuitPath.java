@@ -0,0 +1,194 @@
+package org.firstinspires.ftc.teamcode.Crawler.Path;
+
+/**
+ * A polyline path for pure pursuit, stored as flat coordinate arrays, with a cursor that
+ * remembers which segment the robot is on.
+ * <p>
+ * The lookahead search only looks at a fixed window of segments starting at the cursor, and
+ * the cursor only moves forward. Each call costs the same however long the path is, and a
+ * path that loops back across itself can't pull the robot onto an earlier segment.
+ */
+public class PurePursuitPath {
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] distances; // path length up to each point
+    private final double[] headings;  // heading to hold at each point, or null
+    private final int window;
+    private int cursor = 0;
+    private int progressSegment = 0;
+    private int headingSegment = 0;
+
+    /**
+     * @param window how many segments ahead of the cursor to search. It should cover the
+     *               lookahead radius: at least radius / shortest segment.
+     */
+    public PurePursuitPath(double[] xs, double[] ys, int window) {
+        this(xs, ys, null, window);
+    }
+
+    /**
+     * @param headings heading (radians) the robot should hold at each point, or null to
+     *                 leave heading to the caller
+     */
+    public PurePursuitPath(double[] xs, double[] ys, double[] headings, int window) {
+        if (xs.length != ys.length || xs.length == 0) {
+            throw new IllegalArgumentException("Path needs matching, non-empty x and y arrays");
+        }
+        if (headings != null && headings.length != xs.length) {
+            throw new IllegalArgumentException("Path needs a heading for every point");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.headings = headings;
+        this.window = Math.max(1, window);
+        distances = new double[xs.length];
+        for (int i = 1; i < xs.length; i++) {
+            distances[i] = distances[i - 1] + Math.hypot(xs[i] - xs[i - 1], ys[i] - ys[i - 1]);
+        }
+    }
+
+    /**
+     * Find the point to steer toward: the furthest point along the path, within the search
+     * window, where the lookahead circle crosses it.
+     * <p>
+     * With no crossing in the window, it falls back to the furthest window point inside the
+     * circle (dense paths) or the end of the current segment (robot off the path).
+     *
+     * @param out receives x, y of the lookahead point
+     * @return true if the circle actually crossed the path
+     */
+    public boolean findLookahead(double robotX, double robotY, double radius, double[] out) {
+        int segments = xs.length - 1;
+        if (segments == 0) {
+            out[0] = xs[0];
+            out[1] = ys[0];
+            return false;
+        }
+
+        // 1. Skip segments the robot has already passed
+        int skipped = 0;
+        while (cursor < segments - 1 && skipped < window && PursuitGeometry.project(xs[cursor], ys[cursor], xs[cursor + 1], ys[cursor + 1], robotX, robotY) > 1) {
+            cursor++;
+            skipped++;
+        }
+
+        // 2. Furthest crossing inside the window
+        int end = Math.min(segments, cursor + window);
+        int bestSegment = -1;
+        double bestT = 0;
+        int insideIndex = -1;
+        double r2 = radius * radius;
+        for (int i = cursor; i < end; i++) {
+            double t = PursuitGeometry.furthestIntersection(xs[i], ys[i], xs[i + 1], ys[i + 1], robotX, robotY, radius);
+            if (t >= 0) {
+                bestSegment = i;
+                bestT = t;
+            }
+            if (PursuitGeometry.distanceSq(xs[i + 1], ys[i + 1], robotX, robotY) <= r2) insideIndex = i + 1;
+        }
+
+        // A vertex further along than the crossing and still inside the circle wins (path end, dense points)
+        if (bestSegment >= 0 && bestSegment + bestT >= insideIndex) {
+            cursor = bestSegment;
+            out[0] = PursuitGeometry.lerp(xs[bestSegment], xs[bestSegment + 1], bestT);
+            out[1] = PursuitGeometry.lerp(ys[bestSegment], ys[bestSegment + 1], bestT);
+            return true;
+        }
+        if (insideIndex >= 0) {
+            cursor = Math.max(cursor, insideIndex - 1);
+            out[0] = xs[insideIndex];
+            out[1] = ys[insideIndex];
+            return false;
+        }
+        out[0] = xs[cursor + 1];
+        out[1] = ys[cursor + 1];
+        return false;
+    }
+
+    /**
+     * How far along the path the robot is, by arc length: the robot projected onto the
+     * segment it's on. Like the lookahead cursor this only moves forward, so a path that
+     * comes back past its start still counts up.
+     */
+    public double getProgress(double robotX, double robotY) {
+        int segments = xs.length - 1;
+        if (segments == 0) return 0;
+
+        // Move on once the robot is past the segment's end or nearer the next one (corners get cut)
+        int skipped = 0;
+        while (progressSegment < segments - 1 && skipped < window
+                && segmentDistanceSq(progressSegment + 1, robotX, robotY) <= segmentDistanceSq(progressSegment, robotX, robotY)) {
+            progressSegment++;
+            skipped++;
+        }
+        int i = progressSegment;
+        double t = Math.max(0, Math.min(1, PursuitGeometry.project(xs[i], ys[i], xs[i + 1], ys[i + 1], robotX, robotY)));
+        return distances[i] + t * (distances[i + 1] - distances[i]);
+    }
+
+    public boolean hasHeadings() {
+        return headings != null;
+    }
+
+    /**
+     * Heading to hold at a distance along the path, interpolated the short way round
+     * between points. Expects progress that only grows, like {@link #getProgress}.
+     */
+    public double getHeadingAt(double progress) {
+        int segments = xs.length - 1;
+        if (segments == 0) return headings[0];
+        while (headingSegment < segments - 1 && distances[headingSegment + 1] <= progress) headingSegment++;
+
+        int i = headingSegment;
+        double span = distances[i + 1] - distances[i];
+        double f = span == 0 ? 1 : Math.max(0, Math.min(1, (progress - distances[i]) / span));
+        double delta = Math.atan2(Math.sin(headings[i + 1] - headings[i]), Math.cos(headings[i + 1] - headings[i]));
+        return headings[i] + f * delta;
+    }
+
+    /** Start from the first segment again. */
+    public void reset() {
+        cursor = 0;
+        progressSegment = 0;
+        headingSegment = 0;
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    public double getEndX() {
+        return xs[xs.length - 1];
+    }
+
+    public double getEndY() {
+        return ys[ys.length - 1];
+    }
+
+    /** Total length, in the same units as the points. */
+    public double getLength() {
+        return distances[distances.length - 1];
+    }
+
+    /** Path length from the start to point {@code i}. */
+    public double getDistance(int i) {
+        return distances[i];
+    }
+
+    private double segmentDistanceSq(int i, double robotX, double robotY) {
+        double t = Math.max(0, Math.min(1, PursuitGeometry.project(xs[i], ys[i], xs[i + 1], ys[i + 1], robotX, robotY)));
+        return PursuitGeometry.distanceSq(PursuitGeometry.lerp(xs[i], xs[i + 1], t), PursuitGeometry.lerp(ys[i], ys[i + 1], t), robotX, robotY);
+    }
+}
@@ -0,0 +1,81 @@
+package org.firstinspires.ftc.teamcode.Crawler.Path;
+
+/**
+ * The geometry pure pursuit needs, on plain doubles. Results go into caller-supplied arrays
+ * or come back as primitives, so none of it allocates.
+ */
+public final class PursuitGeometry {
+    private PursuitGeometry() {}
+
+    /**
+     * Where the segment from (x1, y1) to (x2, y2) crosses the circle around (cx, cy).
+     * @param outT receives the crossing parameters in [0, 1] along the segment, smallest first
+     * @return how many crossings were written (0, 1 or 2)
+     */
+    public static int segmentCircleIntersections(double x1, double y1, double x2, double y2,
+                                                 double cx, double cy, double radius, double[] outT) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double fx = x1 - cx;
+        double fy = y1 - cy;
+        double a = dx * dx + dy * dy;
+        if (a == 0) return 0;
+        double b = 2 * (fx * dx + fy * dy);
+        double c = fx * fx + fy * fy - radius * radius;
+        double disc = b * b - 4 * a * c;
+        if (disc < 0) return 0;
+
+        double root = Math.sqrt(disc);
+        double t1 = (-b - root) / (2 * a);
+        double t2 = (-b + root) / (2 * a);
+        int count = 0;
+        if (t1 >= 0 && t1 <= 1) outT[count++] = t1;
+        if (t2 >= 0 && t2 <= 1 && t2 != t1) outT[count++] = t2;
+        return count;
+    }
+
+    /**
+     * The crossing furthest along the segment, or -1 if it doesn't cross the circle.
+     */
+    public static double furthestIntersection(double x1, double y1, double x2, double y2,
+                                              double cx, double cy, double radius) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double fx = x1 - cx;
+        double fy = y1 - cy;
+        double a = dx * dx + dy * dy;
+        if (a == 0) return -1;
+        double b = 2 * (fx * dx + fy * dy);
+        double c = fx * fx + fy * fy - radius * radius;
+        double disc = b * b - 4 * a * c;
+        if (disc < 0) return -1;
+        double root = Math.sqrt(disc);
+        double t2 = (-b + root) / (2 * a);
+        if (t2 >= 0 && t2 <= 1) return t2;
+        double t1 = (-b - root) / (2 * a);
+        if (t1 >= 0 && t1 <= 1) return t1;
+        return -1;
+    }
+
+    /**
+     * Where (px, py) projects onto the line through the segment: 0 at its start, 1 at its end.
+     * Not clamped. A zero-length segment counts as already passed (1).
+     */
+    public static double project(double x1, double y1, double x2, double y2, double px, double py) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSq = dx * dx + dy * dy;
+        if (lengthSq == 0) return 1;
+        return ((px - x1) * dx + (py - y1) * dy) / lengthSq;
+    }
+
+    public static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    public static double distanceSq(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        return dx * dx + dy * dy;
+    }
+}
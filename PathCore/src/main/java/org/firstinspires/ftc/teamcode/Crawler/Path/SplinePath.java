@@ -0,0 +1,254 @@
+package org.firstinspires.ftc.teamcode.Crawler.Path;
+
+/**
+ * A smooth path through waypoints made of cubic Hermite segments, sampled once into a table
+ * with even arc-length spacing.
+ * <p>
+ * Building it does all the work: each segment is sampled densely, the arc length summed up,
+ * and the result resampled every {@link #SPACING} cm. After that, position, tangent and
+ * curvature at any distance along the path are an array index and a lerp, O(1).
+ * <p>
+ * Units are centimeters and radians. Building from FTCLib poses is in {@code PosePaths}, on the robot side.
+ */
+public class SplinePath {
+    /** Distance between table entries, cm. */
+    public static final double SPACING = 0.5;
+    private static final int SAMPLES_PER_SEGMENT = 200;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] tangents;
+    private final double[] curvatures;
+    private final double length;
+    private final double[] knotDistances; // arc length at each waypoint, null for baked samples
+    private final double[] knotHeadings;
+
+    private SplinePath(double[] px, double[] py, double[] tx, double[] ty, double[] headings) {
+        int segments = px.length - 1;
+        int dense = segments * SAMPLES_PER_SEGMENT + 1;
+        double[] dx = new double[dense];
+        double[] dy = new double[dense];
+        double[] dHeading = new double[dense];
+        double[] dCurvature = new double[dense];
+        double[] dS = new double[dense];
+
+        // 1. Dense sampling of every segment, summing chord lengths
+        int k = 0;
+        for (int seg = 0; seg < segments; seg++) {
+            for (int j = (seg == 0 ? 0 : 1); j <= SAMPLES_PER_SEGMENT; j++) {
+                double t = (double) j / SAMPLES_PER_SEGMENT;
+                evaluate(px[seg], py[seg], tx[seg], ty[seg], px[seg + 1], py[seg + 1], tx[seg + 1], ty[seg + 1],
+                        t, dx, dy, dHeading, dCurvature, k);
+                if (k > 0) dS[k] = dS[k - 1] + Math.hypot(dx[k] - dx[k - 1], dy[k] - dy[k - 1]);
+                k++;
+            }
+        }
+        length = dS[dense - 1];
+        knotHeadings = headings;
+        knotDistances = new double[px.length];
+        for (int i = 0; i <= segments; i++) knotDistances[i] = dS[i * SAMPLES_PER_SEGMENT];
+
+        // 2. Resample at even arc-length spacing
+        int count = Math.max(2, (int) Math.ceil(length / SPACING) + 1);
+        xs = new double[count];
+        ys = new double[count];
+        tangents = new double[count];
+        curvatures = new double[count];
+        int d = 0;
+        for (int i = 0; i < count; i++) {
+            double s = Math.min(i * SPACING, length);
+            while (d < dense - 2 && dS[d + 1] < s) d++;
+            double span = dS[d + 1] - dS[d];
+            double f = span == 0 ? 0 : (s - dS[d]) / span;
+            xs[i] = PursuitGeometry.lerp(dx[d], dx[d + 1], f);
+            ys[i] = PursuitGeometry.lerp(dy[d], dy[d + 1], f);
+            tangents[i] = dHeading[d] + f * wrap(dHeading[d + 1] - dHeading[d]);
+            curvatures[i] = PursuitGeometry.lerp(dCurvature[d], dCurvature[d + 1], f);
+        }
+    }
+
+    private SplinePath(double length, double[] xs, double[] ys, double[] tangents, double[] curvatures) {
+        this.length = length;
+        this.xs = xs;
+        this.ys = ys;
+        this.tangents = tangents;
+        this.curvatures = curvatures;
+        this.knotDistances = null;
+        this.knotHeadings = null;
+    }
+
+    /**
+     * A spline from tables sampled earlier at {@link #SPACING} (e.g. generated at compile
+     * time by {@code @Trajectory}). The arrays are used as they are, not copied.
+     */
+    public static SplinePath fromSamples(double length, double[] xs, double[] ys, double[] tangents, double[] curvatures) {
+        if (xs.length < 2 || ys.length != xs.length || tangents.length != xs.length || curvatures.length != xs.length) {
+            throw new IllegalArgumentException("Spline needs at least two samples of each");
+        }
+        return new SplinePath(length, xs, ys, tangents, curvatures);
+    }
+
+    /**
+     * Spline through the waypoints, leaving each one in the direction of its rotation.
+     * Tangent length is the average distance to the neighbouring waypoints, which keeps
+     * the curve from overshooting. Cm and radians.
+     */
+    public static SplinePath hermite(double[] px, double[] py, double[] headings) {
+        int n = checkSize(px, py);
+        if (headings.length != n) throw new IllegalArgumentException("A spline needs a heading for every waypoint");
+        double[] tx = new double[n], ty = new double[n];
+        for (int i = 0; i < n; i++) {
+            double before = i > 0 ? Math.hypot(px[i] - px[i - 1], py[i] - py[i - 1]) : 0;
+            double after = i < n - 1 ? Math.hypot(px[i + 1] - px[i], py[i + 1] - py[i]) : 0;
+            double magnitude = (i == 0 || i == n - 1) ? before + after : (before + after) / 2;
+            tx[i] = Math.cos(headings[i]) * magnitude;
+            ty[i] = Math.sin(headings[i]) * magnitude;
+        }
+        return new SplinePath(px, py, tx, ty, headings);
+    }
+
+    /**
+     * Catmull-Rom spline: tangents come from the neighbouring waypoints, rotations are ignored.
+     */
+    public static SplinePath catmullRom(double[] px, double[] py) {
+        int n = checkSize(px, py);
+        double[] tx = new double[n], ty = new double[n];
+        for (int i = 0; i < n; i++) {
+            int prev = Math.max(0, i - 1);
+            int next = Math.min(n - 1, i + 1);
+            double scale = (next - prev) == 2 ? 0.5 : 1;
+            tx[i] = (px[next] - px[prev]) * scale;
+            ty[i] = (py[next] - py[prev]) * scale;
+        }
+        double[] headings = new double[n];
+        for (int i = 0; i < n; i++) headings[i] = Math.atan2(ty[i], tx[i]);
+        return new SplinePath(px, py, tx, ty, headings);
+    }
+
+    /** Total arc length, cm. */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * Everything about the path at a distance along it.
+     * @param out receives x, y, tangent heading, curvature (1/cm, positive turning left)
+     */
+    public void sample(double s, double[] out) {
+        int i = index(s);
+        double f = fraction(s, i);
+        out[0] = PursuitGeometry.lerp(xs[i], xs[i + 1], f);
+        out[1] = PursuitGeometry.lerp(ys[i], ys[i + 1], f);
+        out[2] = tangents[i] + f * wrap(tangents[i + 1] - tangents[i]);
+        out[3] = PursuitGeometry.lerp(curvatures[i], curvatures[i + 1], f);
+    }
+
+    public double getX(double s) {
+        int i = index(s);
+        return PursuitGeometry.lerp(xs[i], xs[i + 1], fraction(s, i));
+    }
+
+    public double getY(double s) {
+        int i = index(s);
+        return PursuitGeometry.lerp(ys[i], ys[i + 1], fraction(s, i));
+    }
+
+    /** Direction of travel, radians. */
+    public double getTangent(double s) {
+        int i = index(s);
+        return tangents[i] + fraction(s, i) * wrap(tangents[i + 1] - tangents[i]);
+    }
+
+    public double getCurvature(double s) {
+        int i = index(s);
+        return PursuitGeometry.lerp(curvatures[i], curvatures[i + 1], fraction(s, i));
+    }
+
+    public int getSampleCount() {
+        return xs.length;
+    }
+
+    /** Table entry {@code i}, which is {@code i * SPACING} cm along the path. */
+    public double getSampleX(int i) {
+        return xs[i];
+    }
+
+    public double getSampleY(int i) {
+        return ys[i];
+    }
+
+    public double getSampleTangent(int i) {
+        return tangents[i];
+    }
+
+    public double getSampleCurvature(int i) {
+        return curvatures[i];
+    }
+
+    /**
+     * The sampled points as a pursuit path. The search window is sized so it covers the
+     * lookahead radius at this path's point spacing.
+     * <p>
+     * Headings blend from one waypoint's rotation to the next by arc length. Baked splines
+     * have no waypoints and face along the path instead.
+     */
+    public PurePursuitPath toPurePursuitPath(double lookaheadRadius) {
+        int window = (int) Math.ceil(lookaheadRadius / SPACING) + 4;
+        double[] headings = tangents;
+        if (knotDistances != null) {
+            headings = new double[xs.length];
+            int k = 0;
+            for (int i = 0; i < xs.length; i++) {
+                double s = Math.min(i * SPACING, length);
+                while (k < knotDistances.length - 2 && knotDistances[k + 1] <= s) k++;
+                double span = knotDistances[k + 1] - knotDistances[k];
+                double f = span == 0 ? 1 : Math.max(0, Math.min(1, (s - knotDistances[k]) / span));
+                headings[i] = knotHeadings[k] + f * wrap(knotHeadings[k + 1] - knotHeadings[k]);
+            }
+        }
+        return new PurePursuitPath(xs, ys, headings, window);
+    }
+
+    private int index(double s) {
+        int i = (int) (s / SPACING);
+        return Math.max(0, Math.min(xs.length - 2, i));
+    }
+
+    private double fraction(double s, int i) {
+        double f = (s - i * SPACING) / SPACING;
+        return Math.max(0, Math.min(1, f));
+    }
+
+    private static int checkSize(double[] px, double[] py) {
+        if (px.length < 2 || py.length != px.length) {
+            throw new IllegalArgumentException("A spline needs at least two waypoints");
+        }
+        return px.length;
+    }
+
+    // Cubic Hermite basis, and its first and second derivatives for heading and curvature
+    private static void evaluate(double x0, double y0, double tx0, double ty0,
+                                 double x1, double y1, double tx1, double ty1, double t,
+                                 double[] xs, double[] ys, double[] headings, double[] curvatures, int k) {
+        double t2 = t * t;
+        double t3 = t2 * t;
+        double h00 = 2 * t3 - 3 * t2 + 1, h10 = t3 - 2 * t2 + t, h01 = -2 * t3 + 3 * t2, h11 = t3 - t2;
+        double d00 = 6 * t2 - 6 * t, d10 = 3 * t2 - 4 * t + 1, d01 = -6 * t2 + 6 * t, d11 = 3 * t2 - 2 * t;
+        double s00 = 12 * t - 6, s10 = 6 * t - 4, s01 = -12 * t + 6, s11 = 6 * t - 2;
+
+        xs[k] = h00 * x0 + h10 * tx0 + h01 * x1 + h11 * tx1;
+        ys[k] = h00 * y0 + h10 * ty0 + h01 * y1 + h11 * ty1;
+        double dx = d00 * x0 + d10 * tx0 + d01 * x1 + d11 * tx1;
+        double dy = d00 * y0 + d10 * ty0 + d01 * y1 + d11 * ty1;
+        double ddx = s00 * x0 + s10 * tx0 + s01 * x1 + s11 * tx1;
+        double ddy = s00 * y0 + s10 * ty0 + s01 * y1 + s11 * ty1;
+
+        double speedSq = dx * dx + dy * dy;
+        headings[k] = Math.atan2(dy, dx);
+        curvatures[k] = speedSq < 1e-12 ? 0 : (dx * ddy - dy * ddx) / Math.pow(speedSq, 1.5);
+    }
+
+    private static double wrap(double angle) {
+        return Math.atan2(Math.sin(angle), Math.cos(angle));
+    }
+}
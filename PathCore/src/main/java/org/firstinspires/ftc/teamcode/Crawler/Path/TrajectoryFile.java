@@ -0,0 +1,284 @@
+package org.firstinspires.ftc.teamcode.Crawler.Path;
+
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * A trajectory stored as a small binary file: the waypoints, the motion profile sampled
+ * along them, and named markers. Paths can then be changed by copying a file to the
+ * Control Hub instead of rebuilding the app.
+ * <p>
+ * Layout, little-endian, all numbers float32 unless noted:
+ * <pre>
+ *   int   magic 'CRPT'     short version     short reserved
+ *   int   waypointCount    int sampleCount   int markerCount    float sampleDt
+ *   waypointCount x (x cm, y cm, heading rad)
+ *   sampleCount   x (position cm, velocity cm/s, acceleration cm/s^2)
+ *   markerCount   x (byte type, a, b, c, short nameLength, UTF-8 name)
+ *   int   CRC32 of everything before it
+ * </pre>
+ * Marker values depend on the type: percentage, cm or seconds in {@code a} for the first
+ * three, x/y/radius for a region.
+ */
+public final class TrajectoryFile {
+    public static final int MAGIC = 0x54505243; // "CRPT" read as a little-endian int
+    public static final short VERSION = 1;
+
+    public static final byte MARKER_PERCENT = 0;
+    public static final byte MARKER_DISTANCE = 1;
+    public static final byte MARKER_TIME = 2;
+    public static final byte MARKER_REGION = 3;
+
+    private static final int HEADER_BYTES = 24;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] headings;
+    private final MotionProfile profile;
+    private final byte[] markerTypes;
+    private final double[] markerA;
+    private final double[] markerB;
+    private final double[] markerC;
+    private final String[] markerNames;
+
+    /**
+     * @param profile may be null for a path without one
+     */
+    public TrajectoryFile(double[] xs, double[] ys, double[] headings, MotionProfile profile,
+                          byte[] markerTypes, double[] markerA, double[] markerB, double[] markerC, String[] markerNames) {
+        if (xs.length == 0 || ys.length != xs.length || headings.length != xs.length) {
+            throw new IllegalArgumentException("Waypoints need matching, non-empty x, y and heading arrays");
+        }
+        int markers = markerTypes.length;
+        if (markerA.length != markers || markerB.length != markers || markerC.length != markers || markerNames.length != markers) {
+            throw new IllegalArgumentException("Marker arrays must all be the same length");
+        }
+        this.xs = xs;
+        this.ys = ys;
+        this.headings = headings;
+        this.profile = profile;
+        this.markerTypes = markerTypes;
+        this.markerA = markerA;
+        this.markerB = markerB;
+        this.markerC = markerC;
+        this.markerNames = markerNames;
+    }
+
+    /**
+     * Map the file and decode it. The file is only read through the mapping, which is the
+     * quickest way on and off the Control Hub's flash.
+     */
+    public static TrajectoryFile load(File file) throws IOException {
+        try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer);
+        }
+    }
+
+    /**
+     * Decode from the buffer's position to its limit.
+     * @throws IOException if the data is not a trajectory, is from a newer version, or is corrupt
+     */
+    public static TrajectoryFile decode(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < HEADER_BYTES + 4) throw new IOException("Trajectory file is truncated");
+
+        // 1. Checksum first, so a half-copied file never gets as far as the robot
+        int bodyLength = in.limit() - 4;
+        if (checksum(in, bodyLength) != in.getInt(bodyLength)) throw new IOException("Trajectory file checksum mismatch");
+
+        // 2. Header
+        if (in.getInt() != MAGIC) throw new IOException("Not a trajectory file");
+        short version = in.getShort();
+        if (version > VERSION) throw new IOException("Trajectory file version " + version + " is newer than this code");
+        in.getShort(); // reserved
+        int waypointCount = in.getInt();
+        int sampleCount = in.getInt();
+        int markerCount = in.getInt();
+        double sampleDt = in.getFloat();
+        if (waypointCount <= 0 || sampleCount < 0 || sampleCount == 1 || markerCount < 0
+                || (sampleCount > 0 && !(sampleDt > 0))
+                || (long) waypointCount * 12 + (long) sampleCount * 12 > bodyLength - HEADER_BYTES) {
+            throw new IOException("Trajectory file header is inconsistent");
+        }
+
+        // 3. Waypoints and profile
+        double[] xs = new double[waypointCount];
+        double[] ys = new double[waypointCount];
+        double[] headings = new double[waypointCount];
+        for (int i = 0; i < waypointCount; i++) {
+            xs[i] = in.getFloat();
+            ys[i] = in.getFloat();
+            headings[i] = in.getFloat();
+        }
+        MotionProfile profile = null;
+        if (sampleCount > 0) {
+            double[] positions = new double[sampleCount];
+            double[] velocities = new double[sampleCount];
+            double[] accelerations = new double[sampleCount];
+            for (int i = 0; i < sampleCount; i++) {
+                positions[i] = in.getFloat();
+                velocities[i] = in.getFloat();
+                accelerations[i] = in.getFloat();
+            }
+            profile = MotionProfile.fromSamples(sampleDt, positions, velocities, accelerations);
+        }
+
+        // 4. Markers
+        byte[] types = new byte[markerCount];
+        double[] a = new double[markerCount];
+        double[] b = new double[markerCount];
+        double[] c = new double[markerCount];
+        String[] names = new String[markerCount];
+        for (int i = 0; i < markerCount; i++) {
+            if (in.position() + 15 > bodyLength) throw new IOException("Trajectory file is truncated");
+            types[i] = in.get();
+            if (types[i] < MARKER_PERCENT || types[i] > MARKER_REGION) throw new IOException("Unknown marker type " + types[i]);
+            a[i] = in.getFloat();
+            b[i] = in.getFloat();
+            c[i] = in.getFloat();
+            int nameLength = in.getShort() & 0xFFFF;
+            if (in.position() + nameLength > bodyLength) throw new IOException("Trajectory file is truncated");
+            byte[] name = new byte[nameLength];
+            in.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return new TrajectoryFile(xs, ys, headings, profile, types, a, b, c, names);
+    }
+
+    /** The whole file, ready to write. */
+    public ByteBuffer encode() {
+        byte[][] names = new byte[markerNames.length][];
+        int size = HEADER_BYTES + xs.length * 12 + getSampleCount() * 12 + 4;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = markerNames[i].getBytes(StandardCharsets.UTF_8);
+            if (names[i].length > 0xFFFF) throw new IllegalArgumentException("Marker name too long: " + markerNames[i]);
+            size += 15 + names[i].length;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putShort((short) 0);
+        out.putInt(xs.length);
+        out.putInt(getSampleCount());
+        out.putInt(markerNames.length);
+        out.putFloat(profile == null ? 0 : (float) profile.getSampleDt());
+        for (int i = 0; i < xs.length; i++) {
+            out.putFloat((float) xs[i]);
+            out.putFloat((float) ys[i]);
+            out.putFloat((float) headings[i]);
+        }
+        for (int i = 0; i < getSampleCount(); i++) {
+            out.putFloat((float) profile.getPositionSample(i));
+            out.putFloat((float) profile.getVelocitySample(i));
+            out.putFloat((float) profile.getAccelerationSample(i));
+        }
+        for (int i = 0; i < names.length; i++) {
+            out.put(markerTypes[i]);
+            out.putFloat((float) markerA[i]);
+            out.putFloat((float) markerB[i]);
+            out.putFloat((float) markerC[i]);
+            out.putShort((short) names[i].length);
+            out.put(names[i]);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 0, out.position());
+        out.putInt((int) crc.getValue());
+        out.flip();
+        return out;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        ByteBuffer data = encode();
+        out.write(data.array(), data.arrayOffset(), data.limit());
+    }
+
+    public void write(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    // CRC32 of the first length bytes. CRC32.update(ByteBuffer) needs API 26, so copy through a small array.
+    private static int checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer data = buffer.duplicate();
+        data.position(0);
+        byte[] chunk = new byte[4096];
+        int left = length;
+        while (left > 0) {
+            int n = Math.min(chunk.length, left);
+            data.get(chunk, 0, n);
+            crc.update(chunk, 0, n);
+            left -= n;
+        }
+        return (int) crc.getValue();
+    }
+
+    /** Waypoints as a pursuit path, holding each waypoint's heading. */
+    public PurePursuitPath toPurePursuitPath(int window) {
+        return new PurePursuitPath(xs, ys, headings, window);
+    }
+
+    public int getWaypointCount() {
+        return xs.length;
+    }
+
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    public double getHeading(int i) {
+        return headings[i];
+    }
+
+    /** Profile along the path's length, or null if the file has none. */
+    public MotionProfile getProfile() {
+        return profile;
+    }
+
+    public int getSampleCount() {
+        return profile == null ? 0 : profile.getSampleCount();
+    }
+
+    public int getMarkerCount() {
+        return markerNames.length;
+    }
+
+    public byte getMarkerType(int i) {
+        return markerTypes[i];
+    }
+
+    public double getMarkerA(int i) {
+        return markerA[i];
+    }
+
+    public double getMarkerB(int i) {
+        return markerB[i];
+    }
+
+    public double getMarkerC(int i) {
+        return markerC[i];
+    }
+
+    public String getMarkerName(int i) {
+        return markerNames[i];
+    }
+}
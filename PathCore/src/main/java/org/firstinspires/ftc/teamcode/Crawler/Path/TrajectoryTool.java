@@ -0,0 +1,226 @@
+package org.firstinspires.ftc.teamcode.Crawler.Path;
+
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Desktop side of {@link TrajectoryFile}: turns a text path description into a trajectory
+ * file, prints one back, and checks that a description survives the round trip.
+ * <p>
+ * Text format, one entry per line, {@code #} for comments:
+ * <pre>
+ *   W x y headingDeg                      waypoint, cm
+ *   P maxVel maxAccel maxJerk dt          profile along the path, cm and s; maxJerk 0 for a trapezoid
+ *   M name percent|distance|time a        marker at a %, cm or seconds
+ *   M name region x y radius              marker when the robot enters a circle
+ * </pre>
+ * Copy the output to the Control Hub's {@code FIRST/data} folder and load it with
+ * {@code Follower.loadTrajectory}. It's plain Java, run it from the PathCore jar:
+ * {@code java -cp PathCore.jar org.firstinspires.ftc.teamcode.Crawler.Path.TrajectoryTool check path.txt}
+ */
+public final class TrajectoryTool {
+    private TrajectoryTool() {}
+
+    public static TrajectoryFile parse(BufferedReader in) throws IOException {
+        List<double[]> waypoints = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<double[]> markers = new ArrayList<>(); // type, a, b, c
+        double[] profileSpec = null;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] f = line.split("\\s+");
+            try {
+                switch (f[0]) {
+                    case "W":
+                        waypoints.add(new double[] {
+                                Double.parseDouble(f[1]), Double.parseDouble(f[2]), Math.toRadians(Double.parseDouble(f[3]))});
+                        break;
+                    case "P":
+                        profileSpec = new double[] {
+                                Double.parseDouble(f[1]), Double.parseDouble(f[2]), Double.parseDouble(f[3]), Double.parseDouble(f[4])};
+                        break;
+                    case "M":
+                        names.add(f[1]);
+                        markers.add(parseMarker(f));
+                        break;
+                    default:
+                        throw new IOException("Unknown entry '" + f[0] + "'");
+                }
+            } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        if (waypoints.isEmpty()) throw new IOException("No waypoints");
+
+        double[] xs = new double[waypoints.size()];
+        double[] ys = new double[waypoints.size()];
+        double[] headings = new double[waypoints.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = waypoints.get(i)[0];
+            ys[i] = waypoints.get(i)[1];
+            headings[i] = waypoints.get(i)[2];
+        }
+
+        MotionProfile profile = null;
+        if (profileSpec != null) {
+            double length = new PurePursuitPath(xs, ys, 1).getLength();
+            profile = profileSpec[2] > 0
+                    ? MotionProfile.sCurve(length, profileSpec[0], profileSpec[1], profileSpec[2], profileSpec[3])
+                    : MotionProfile.trapezoid(length, profileSpec[0], profileSpec[1], profileSpec[3]);
+        }
+
+        byte[] types = new byte[markers.size()];
+        double[] a = new double[markers.size()];
+        double[] b = new double[markers.size()];
+        double[] c = new double[markers.size()];
+        for (int i = 0; i < types.length; i++) {
+            double[] m = markers.get(i);
+            types[i] = (byte) m[0];
+            a[i] = m[1];
+            b[i] = m[2];
+            c[i] = m[3];
+        }
+        return new TrajectoryFile(xs, ys, headings, profile, types, a, b, c, names.toArray(new String[0]));
+    }
+
+    public static void print(TrajectoryFile trajectory, PrintWriter out) {
+        for (int i = 0; i < trajectory.getWaypointCount(); i++) {
+            out.printf("W %.3f %.3f %.3f%n", trajectory.getX(i), trajectory.getY(i), Math.toDegrees(trajectory.getHeading(i)));
+        }
+        MotionProfile profile = trajectory.getProfile();
+        if (profile != null) {
+            out.printf("# profile: %d samples every %.4f s, %.3f s, %.3f cm%n", profile.getSampleCount(),
+                    profile.getSampleDt(), profile.getDuration(), profile.getDistance());
+        }
+        for (int i = 0; i < trajectory.getMarkerCount(); i++) {
+            byte type = trajectory.getMarkerType(i);
+            if (type == TrajectoryFile.MARKER_REGION) {
+                out.printf("M %s region %.3f %.3f %.3f%n", trajectory.getMarkerName(i),
+                        trajectory.getMarkerA(i), trajectory.getMarkerB(i), trajectory.getMarkerC(i));
+            } else {
+                out.printf("M %s %s %.3f%n", trajectory.getMarkerName(i), typeName(type), trajectory.getMarkerA(i));
+            }
+        }
+    }
+
+    /**
+     * Encode and decode again, and compare against the original at float precision.
+     * @return a description of the first difference, or null if they match
+     */
+    public static String roundTrip(TrajectoryFile original) throws IOException {
+        ByteBuffer encoded = original.encode();
+        TrajectoryFile decoded = TrajectoryFile.decode(encoded);
+        if (decoded.getWaypointCount() != original.getWaypointCount()) return "waypoint count";
+        for (int i = 0; i < original.getWaypointCount(); i++) {
+            if (!same(original.getX(i), decoded.getX(i)) || !same(original.getY(i), decoded.getY(i))
+                    || !same(original.getHeading(i), decoded.getHeading(i))) {
+                return "waypoint " + i;
+            }
+        }
+        if (decoded.getSampleCount() != original.getSampleCount()) return "sample count";
+        for (int i = 0; i < original.getSampleCount(); i++) {
+            MotionProfile p = original.getProfile();
+            MotionProfile q = decoded.getProfile();
+            if (!same(p.getPositionSample(i), q.getPositionSample(i)) || !same(p.getVelocitySample(i), q.getVelocitySample(i))
+                    || !same(p.getAccelerationSample(i), q.getAccelerationSample(i))) {
+                return "profile sample " + i;
+            }
+        }
+        if (decoded.getMarkerCount() != original.getMarkerCount()) return "marker count";
+        for (int i = 0; i < original.getMarkerCount(); i++) {
+            if (decoded.getMarkerType(i) != original.getMarkerType(i) || !decoded.getMarkerName(i).equals(original.getMarkerName(i))
+                    || !same(original.getMarkerA(i), decoded.getMarkerA(i)) || !same(original.getMarkerB(i), decoded.getMarkerB(i))
+                    || !same(original.getMarkerC(i), decoded.getMarkerC(i))) {
+                return "marker " + i;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code TrajectoryTool encode <path.txt> <out.crpt>}, {@code decode <in.crpt>} or
+     * {@code check <path.txt>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || (args[0].equals("encode") && args.length < 3)) {
+            System.err.println("usage: TrajectoryTool encode <path.txt> <out.crpt> | decode <in.crpt> | check <path.txt>");
+            System.exit(2);
+        }
+        switch (args[0]) {
+            case "encode": {
+                TrajectoryFile trajectory = parseFile(args[1]);
+                File out = new File(args[2]);
+                trajectory.write(out);
+                System.err.println("wrote " + out.length() + " bytes to " + out);
+                break;
+            }
+            case "decode": {
+                PrintWriter out = new PrintWriter(System.out);
+                print(TrajectoryFile.load(new File(args[1])), out);
+                out.flush();
+                break;
+            }
+            case "check": {
+                String difference = roundTrip(parseFile(args[1]));
+                System.err.println(difference == null ? "round trip ok" : "round trip differs at " + difference);
+                if (difference != null) System.exit(1);
+                break;
+            }
+            default:
+                System.err.println("unknown command " + args[0]);
+                System.exit(2);
+        }
+    }
+
+    private static TrajectoryFile parseFile(String name) throws IOException {
+        try (BufferedReader in = new BufferedReader(new FileReader(name))) {
+            return parse(in);
+        }
+    }
+
+    private static double[] parseMarker(String[] f) {
+        switch (f[2]) {
+            case "percent":
+                return new double[] {TrajectoryFile.MARKER_PERCENT, Double.parseDouble(f[3]), 0, 0};
+            case "distance":
+                return new double[] {TrajectoryFile.MARKER_DISTANCE, Double.parseDouble(f[3]), 0, 0};
+            case "time":
+                return new double[] {TrajectoryFile.MARKER_TIME, Double.parseDouble(f[3]), 0, 0};
+            case "region":
+                return new double[] {TrajectoryFile.MARKER_REGION,
+                        Double.parseDouble(f[3]), Double.parseDouble(f[4]), Double.parseDouble(f[5])};
+            default:
+                throw new IllegalArgumentException("Unknown marker type '" + f[2] + "'");
+        }
+    }
+
+    private static String typeName(byte type) {
+        switch (type) {
+            case TrajectoryFile.MARKER_PERCENT: return "percent";
+            case TrajectoryFile.MARKER_DISTANCE: return "distance";
+            case TrajectoryFile.MARKER_TIME: return "time";
+            default: return "region";
+        }
+    }
+
+    // Files hold float32, so compare at that precision
+    private static boolean same(double a, double b) {
+        return (float) a == (float) b;
+    }
+}
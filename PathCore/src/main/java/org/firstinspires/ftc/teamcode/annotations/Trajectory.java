@@ -0,0 +1,44 @@
+package org.firstinspires.ftc.teamcode.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a path on an autonomous class, to be fitted and profiled at compile time.
+ * <p>
+ * The trajectory processor fits a Hermite spline through the waypoints, profiles a move
+ * along it and writes the samples into {@code <ClassName>Trajectories} in the same package,
+ * as {@code static final double[]} tables named after {@link #name()} (e.g. {@code PARK_X},
+ * {@code PARK_PROFILE_VELOCITY}). Build the spline from them with
+ * {@code SplinePath.fromSamples(PARK_LENGTH, PARK_X, PARK_Y, PARK_TANGENT, PARK_CURVATURE)}.
+ * A path that can't be fitted fails the build.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+@Repeatable(Trajectories.class)
+public @interface Trajectory {
+    /** Prefix for the generated fields. Must be a Java identifier, unique on the class. */
+    String name();
+
+    /** Waypoints as x, y, heading triples: cm, cm, degrees. At least two. */
+    double[] waypoints();
+
+    /** Profile limits along the path, cm and seconds. */
+    double maxVelocity() default 100;
+
+    double maxAcceleration() default 150;
+
+    /** Jerk limit for an S-curve; 0 for a trapezoidal profile. */
+    double maxJerk() default 0;
+
+    /** Profile table step, normally the control loop period. */
+    double sampleDt() default 0.02;
+
+    /** Tightest turn the robot can follow, cm. The build fails if the spline bends harder; 0 skips the check. */
+    double minTurnRadius() default 0;
+}
@@ -0,0 +1,209 @@
+package org.firstinspires.ftc.teamcode.annotations.processor;
+
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+import org.firstinspires.ftc.teamcode.Crawler.Path.SplinePath;
+import org.firstinspires.ftc.teamcode.annotations.Trajectories;
+import org.firstinspires.ftc.teamcode.annotations.Trajectory;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Fits and profiles every {@link Trajectory} on a class and writes the samples into
+ * {@code <ClassName>Trajectories}. Bad paths are reported as errors on the class.
+ */
+@SupportedAnnotationTypes({
+        "org.firstinspires.ftc.teamcode.annotations.Trajectory",
+        "org.firstinspires.ftc.teamcode.annotations.Trajectories"
+})
+@SupportedSourceVersion(SourceVersion.RELEASE_8)
+public class TrajectoryProcessor extends AbstractProcessor {
+    // A static initializer costs about 8 bytes per array element and a method is capped at 64 KB
+    private static final int MAX_VALUES_PER_CLASS = 7000;
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<Element> classes = new LinkedHashSet<>();
+        classes.addAll(roundEnv.getElementsAnnotatedWith(Trajectory.class));
+        classes.addAll(roundEnv.getElementsAnnotatedWith(Trajectories.class));
+
+        for (Element e : classes) {
+            if (!(e instanceof TypeElement)) continue;
+            TypeElement type = (TypeElement) e;
+            StringBuilder fields = new StringBuilder();
+            Set<String> names = new HashSet<>();
+            int values = 0;
+            boolean ok = true;
+
+            for (Trajectory trajectory : type.getAnnotationsByType(Trajectory.class)) {
+                String prefix = constantName(trajectory.name());
+                if (!SourceVersion.isIdentifier(trajectory.name()) || !names.add(prefix)) {
+                    error(type, trajectory, "name must be a Java identifier and unique on the class");
+                    ok = false;
+                    continue;
+                }
+                String problem = check(trajectory);
+                if (problem != null) {
+                    error(type, trajectory, problem);
+                    ok = false;
+                    continue;
+                }
+
+                // 1. Fit and sample the spline
+                double[] waypoints = trajectory.waypoints();
+                int n = waypoints.length / 3;
+                double[] xs = new double[n], ys = new double[n], headings = new double[n];
+                for (int i = 0; i < n; i++) {
+                    xs[i] = waypoints[3 * i];
+                    ys[i] = waypoints[3 * i + 1];
+                    headings[i] = Math.toRadians(waypoints[3 * i + 2]);
+                }
+                SplinePath spline = SplinePath.hermite(xs, ys, headings);
+
+                int samples = spline.getSampleCount();
+                double[] sx = new double[samples], sy = new double[samples], tangent = new double[samples], curvature = new double[samples];
+                double maxCurvature = 0;
+                int cusp = -1;
+                for (int i = 0; i < samples; i++) {
+                    sx[i] = spline.getSampleX(i);
+                    sy[i] = spline.getSampleY(i);
+                    tangent[i] = spline.getSampleTangent(i);
+                    curvature[i] = spline.getSampleCurvature(i);
+                    maxCurvature = Math.max(maxCurvature, Math.abs(curvature[i]));
+                    if (cusp < 0 && i > 0 && Math.cos(tangent[i] - tangent[i - 1]) < 0) cusp = i;
+                }
+                if (cusp >= 0) {
+                    error(type, trajectory, String.format("doubles back on itself %.1f cm along; check the waypoint headings",
+                            cusp * SplinePath.SPACING));
+                    ok = false;
+                    continue;
+                }
+                if (trajectory.minTurnRadius() > 0 && maxCurvature * trajectory.minTurnRadius() > 1) {
+                    error(type, trajectory, String.format("turns as tight as %.1f cm, below minTurnRadius %.1f cm",
+                            1 / maxCurvature, trajectory.minTurnRadius()));
+                    ok = false;
+                    continue;
+                }
+
+                // 2. Profile along its length
+                MotionProfile profile = trajectory.maxJerk() > 0
+                        ? MotionProfile.sCurve(spline.getLength(), trajectory.maxVelocity(), trajectory.maxAcceleration(),
+                                trajectory.maxJerk(), trajectory.sampleDt())
+                        : MotionProfile.trapezoid(spline.getLength(), trajectory.maxVelocity(), trajectory.maxAcceleration(),
+                                trajectory.sampleDt());
+                int profileSamples = profile.getSampleCount();
+                double[] position = new double[profileSamples], velocity = new double[profileSamples], acceleration = new double[profileSamples];
+                for (int i = 0; i < profileSamples; i++) {
+                    position[i] = profile.getPositionSample(i);
+                    velocity[i] = profile.getVelocitySample(i);
+                    acceleration[i] = profile.getAccelerationSample(i);
+                }
+                values += 4 * samples + 3 * profileSamples;
+
+                // 3. Tables
+                fields.append("\n    // ").append(trajectory.name()).append(": ").append(n).append(" waypoints\n");
+                constant(fields, prefix + "_LENGTH", spline.getLength());
+                constant(fields, prefix + "_DURATION", profile.getDuration());
+                constant(fields, prefix + "_PROFILE_DT", profile.getSampleDt());
+                array(fields, prefix + "_X", sx);
+                array(fields, prefix + "_Y", sy);
+                array(fields, prefix + "_TANGENT", tangent);
+                array(fields, prefix + "_CURVATURE", curvature);
+                array(fields, prefix + "_PROFILE_POSITION", position);
+                array(fields, prefix + "_PROFILE_VELOCITY", velocity);
+                array(fields, prefix + "_PROFILE_ACCELERATION", acceleration);
+            }
+
+            if (values > MAX_VALUES_PER_CLASS) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Trajectories on this class need " + values
+                        + " samples, more than fit in one class (" + MAX_VALUES_PER_CLASS
+                        + "). Raise sampleDt or move some paths to another class.", type);
+                ok = false;
+            }
+            if (ok) write(type, fields);
+        }
+        return true;
+    }
+
+    // Null if the annotation's values make sense, otherwise what's wrong
+    private static String check(Trajectory trajectory) {
+        double[] waypoints = trajectory.waypoints();
+        if (waypoints.length < 6 || waypoints.length % 3 != 0) {
+            return "waypoints must be x, y, heading triples, at least two of them";
+        }
+        for (int i = 3; i < waypoints.length; i += 3) {
+            if (waypoints[i] == waypoints[i - 3] && waypoints[i + 1] == waypoints[i - 2]) {
+                return "waypoint " + (i / 3) + " is on top of the one before it";
+            }
+        }
+        for (double value : waypoints) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) return "waypoints must be finite";
+        }
+        if (trajectory.maxVelocity() <= 0 || trajectory.maxAcceleration() <= 0 || trajectory.maxJerk() < 0) {
+            return "velocity and acceleration limits must be positive, jerk zero or positive";
+        }
+        if (trajectory.sampleDt() <= 0) return "sampleDt must be positive";
+        return null;
+    }
+
+    private void write(TypeElement type, StringBuilder fields) {
+        String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String name = type.getSimpleName() + "Trajectories";
+        String qualified = pkg.isEmpty() ? name : pkg + "." + name;
+        try (Writer out = processingEnv.getFiler().createSourceFile(qualified, type).openWriter();
+             PrintWriter w = new PrintWriter(out)) {
+            if (!pkg.isEmpty()) w.println("package " + pkg + ";");
+            w.println();
+            w.println("/** Generated from the @Trajectory annotations on {@link " + type.getSimpleName() + "}. Do not edit. */");
+            w.println("public final class " + name + " {");
+            w.println("    private " + name + "() {}");
+            w.print(fields);
+            w.println("}");
+        } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write " + qualified + ": " + ex.getMessage(), type);
+        }
+    }
+
+    private void error(Element type, Trajectory trajectory, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "@Trajectory(name = \"" + trajectory.name() + "\"): " + message, type);
+    }
+
+    private static void constant(StringBuilder out, String name, double value) {
+        out.append("    public static final double ").append(name).append(" = ").append(value).append(";\n");
+    }
+
+    private static void array(StringBuilder out, String name, double[] values) {
+        out.append("    public static final double[] ").append(name).append(" = {");
+        for (int i = 0; i < values.length; i++) {
+            out.append(i % 8 == 0 ? "\n            " : " ").append(values[i]);
+            if (i < values.length - 1) out.append(',');
+        }
+        out.append("\n    };\n");
+    }
+
+    // camelCase to UPPER_SNAKE for the field prefix
+    private static String constantName(String name) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1)) && name.charAt(i - 1) != '_') {
+                out.append('_');
+            }
+            out.append(Character.toUpperCase(c));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,183 @@
+package org.firstinspires.ftc.teamcode.Crawler.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+/**
+ * {@link TrajectoryFile} encode/decode round trips, through memory and through a mapped file,
+ * and the errors a damaged or inconsistent file has to come back as.
+ */
+public class TrajectoryFileTest {
+    // Header offsets, see the layout in TrajectoryFile
+    private static final int VERSION_OFFSET = 4;
+    private static final int SAMPLE_COUNT_OFFSET = 12;
+    private static final int SAMPLE_DT_OFFSET = 20;
+
+    private static final String PATH =
+            "# test path\n"
+            + "W 0 0 0\n"
+            + "W 60 0 0\n"
+            + "W 60 30 90   # turn left\n"
+            + "W 0 30 180\n"
+            + "P 80 120 0 0.02\n"
+            + "M intake percent 25.5\n"
+            + "M lift distance 70\n"
+            + "M spinUp time 1.5\n"
+            + "M shoot region 10 30 8\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static TrajectoryFile parse(String text) throws IOException {
+        return TrajectoryTool.parse(new BufferedReader(new StringReader(text)));
+    }
+
+    @Test
+    public void parsesTheTextFormat() throws IOException {
+        TrajectoryFile trajectory = parse(PATH);
+        assertEquals(4, trajectory.getWaypointCount());
+        assertEquals(60, trajectory.getX(2), 0);
+        assertEquals(Math.PI / 2, trajectory.getHeading(2), 1e-12);
+        assertEquals(150, trajectory.getProfile().getDistance(), 1e-9); // 60 + 30 + 60 along the waypoints
+        assertEquals(4, trajectory.getMarkerCount());
+        assertEquals(TrajectoryFile.MARKER_REGION, trajectory.getMarkerType(3));
+        assertEquals("shoot", trajectory.getMarkerName(3));
+        assertEquals(8, trajectory.getMarkerC(3), 0);
+    }
+
+    @Test
+    public void roundTripsThroughMemory() throws IOException {
+        TrajectoryFile original = parse(PATH);
+        assertNull(TrajectoryTool.roundTrip(original));
+
+        TrajectoryFile decoded = TrajectoryFile.decode(original.encode());
+        MotionProfile profile = decoded.getProfile();
+        assertEquals(original.getSampleCount(), decoded.getSampleCount());
+        assertEquals(original.getProfile().getSampleDt(), profile.getSampleDt(), 1e-7);
+        // A decoded profile is only its samples, so it ends on the last one
+        assertEquals((original.getSampleCount() - 1) * profile.getSampleDt(), profile.getDuration(), 1e-9);
+        assertEquals(original.getProfile().getDistance(), profile.getDistance(), 1e-4);
+        assertEquals("spinUp", decoded.getMarkerName(2));
+        assertEquals(1.5, decoded.getMarkerA(2), 0);
+    }
+
+    @Test
+    public void roundTripsThroughAMappedFile() throws IOException {
+        TrajectoryFile original = parse(PATH);
+        File file = folder.newFile("path.crpt");
+        original.write(file);
+        TrajectoryFile loaded = TrajectoryFile.load(file);
+
+        assertEquals(original.getWaypointCount(), loaded.getWaypointCount());
+        for (int i = 0; i < original.getWaypointCount(); i++) {
+            assertEquals((float) original.getX(i), loaded.getX(i), 0);
+            assertEquals((float) original.getY(i), loaded.getY(i), 0);
+            assertEquals((float) original.getHeading(i), loaded.getHeading(i), 0);
+        }
+        for (int i = 0; i < original.getSampleCount(); i++) {
+            assertEquals((float) original.getProfile().getVelocitySample(i), loaded.getProfile().getVelocitySample(i), 0);
+        }
+    }
+
+    @Test
+    public void keepsAPathWithoutAProfile() throws IOException {
+        TrajectoryFile original = parse("W 0 0 0\nW 100 0 0\nM park percent 100\n");
+        TrajectoryFile decoded = TrajectoryFile.decode(original.encode());
+        assertNull(decoded.getProfile());
+        assertEquals(0, decoded.getSampleCount());
+        assertEquals("park", decoded.getMarkerName(0));
+    }
+
+    @Test
+    public void decodesFromTheBufferPosition() throws IOException {
+        ByteBuffer encoded = parse(PATH).encode();
+        ByteBuffer padded = ByteBuffer.allocate(encoded.remaining() + 16);
+        padded.position(16);
+        padded.put(encoded);
+        padded.position(16);
+        assertEquals(4, TrajectoryFile.decode(padded).getWaypointCount());
+    }
+
+    @Test
+    public void rejectsACorruptByte() throws IOException {
+        ByteBuffer encoded = parse(PATH).encode();
+        encoded.put(40, (byte) (encoded.get(40) ^ 0x10));
+        assertRejected(encoded, "checksum");
+    }
+
+    @Test
+    public void rejectsATruncatedFile() throws IOException {
+        ByteBuffer encoded = parse(PATH).encode();
+        encoded.limit(encoded.limit() / 2);
+        assertRejected(encoded, null);
+        assertRejected(ByteBuffer.allocate(10), "truncated");
+    }
+
+    @Test
+    public void rejectsANewerVersion() throws IOException {
+        ByteBuffer encoded = parse(PATH).encode().order(ByteOrder.LITTLE_ENDIAN);
+        encoded.putShort(VERSION_OFFSET, (short) (TrajectoryFile.VERSION + 1));
+        resign(encoded);
+        assertRejected(encoded, "newer");
+    }
+
+    @Test
+    public void rejectsAOneSampleProfile() throws IOException {
+        ByteBuffer encoded = parse(PATH).encode().order(ByteOrder.LITTLE_ENDIAN);
+        encoded.putInt(SAMPLE_COUNT_OFFSET, 1);
+        resign(encoded);
+        assertRejected(encoded, "inconsistent");
+    }
+
+    @Test
+    public void rejectsANonPositiveSampleStep() throws IOException {
+        for (float dt : new float[] {0, -0.02f, Float.NaN}) {
+            ByteBuffer encoded = parse(PATH).encode().order(ByteOrder.LITTLE_ENDIAN);
+            encoded.putFloat(SAMPLE_DT_OFFSET, dt);
+            resign(encoded);
+            assertRejected(encoded, "inconsistent");
+        }
+    }
+
+    @Test
+    public void parseReportsTheBadLine() {
+        try {
+            parse("W 0 0 0\nW 10 0\n");
+            fail("missing heading accepted");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2"));
+        }
+    }
+
+    // Recompute the trailing CRC after editing the body, so the header checks are what trips
+    private static void resign(ByteBuffer encoded) {
+        int body = encoded.limit() - 4;
+        CRC32 crc = new CRC32();
+        crc.update(encoded.array(), encoded.arrayOffset(), body);
+        encoded.putInt(body, (int) crc.getValue());
+    }
+
+    private static void assertRejected(ByteBuffer data, String messagePart) {
+        try {
+            TrajectoryFile.decode(data);
+            fail("decoded a bad file");
+        } catch (IOException e) {
+            if (messagePart != null) assertTrue(e.getMessage(), e.getMessage().contains(messagePart));
+        }
+    }
+}
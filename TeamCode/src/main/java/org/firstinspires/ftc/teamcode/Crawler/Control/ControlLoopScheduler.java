@@ -0,0 +1,135 @@
+package org.firstinspires.ftc.teamcode.Crawler.Control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Ticks controllers at a fixed rate with a measured dt.
+ * <p>
+ * Registered controllers run every tick in registration order (sensor reads go first),
+ * followed by the controller passed to {@link #runUntilDone}. A tick that starts more than
+ * one full period late counts as an overrun, and the schedule is re-anchored instead of
+ * trying to catch up with a burst of back-to-back ticks.
+ */
+public class ControlLoopScheduler {
+    private final long periodNanos;
+    private final List<LoopController> registered = new ArrayList<>();
+
+    private long lastTickNanos = 0;
+    private long nextTickNanos = 0;
+    private double lastDt = 0;
+    private double loopHz = 0;
+    private long ticks = 0;
+    private long overruns = 0;
+
+    public ControlLoopScheduler(double hz) {
+        if (hz <= 0) throw new IllegalArgumentException("Loop rate must be positive");
+        this.periodNanos = (long) (1e9 / hz);
+    }
+
+    /** Add a controller that runs on every tick, e.g. the bulk read. */
+    public void register(LoopController controller) {
+        registered.add(controller);
+    }
+
+    public void unregister(LoopController controller) {
+        registered.remove(controller);
+    }
+
+    /** Forget the previous schedule so the next tick starts immediately with a nominal dt. */
+    public void reset() {
+        lastTickNanos = 0;
+        nextTickNanos = 0;
+    }
+
+    /**
+     * Run the registered controllers plus {@code controller} every period until it
+     * reports done or {@code keepRunning} turns false.
+     */
+    public void runUntilDone(LoopController controller, BooleanSupplier keepRunning) {
+        reset();
+        while (keepRunning.getAsBoolean()) {
+            double dt = waitForNextTick();
+            if (Thread.currentThread().isInterrupted()) return;
+            tickRegistered(dt);
+            if (controller.update(dt)) return;
+        }
+    }
+
+    /**
+     * Block until the next period boundary and run the registered controllers once.
+     * For loops (like TeleOp) that drive the scheduler themselves.
+     * @return the measured dt in seconds
+     */
+    public double tick() {
+        double dt = waitForNextTick();
+        tickRegistered(dt);
+        return dt;
+    }
+
+    private void tickRegistered(double dt) {
+        for (int i = 0; i < registered.size(); i++) {
+            registered.get(i).update(dt);
+        }
+    }
+
+    private double waitForNextTick() {
+        long now = System.nanoTime();
+        if (lastTickNanos == 0) {
+            // First tick after a reset: no history, assume a nominal period
+            lastTickNanos = now;
+            nextTickNanos = now + periodNanos;
+            lastDt = periodNanos / 1e9;
+            ticks++;
+            return lastDt;
+        }
+
+        long remaining = nextTickNanos - now;
+        if (remaining > 0) {
+            // parkNanos can wake early for no reason, so park again until the deadline; a short
+            // dt would inflate the per-second derivative terms. An interrupt still ends the wait.
+            while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(remaining);
+                remaining = nextTickNanos - System.nanoTime();
+            }
+            now = System.nanoTime();
+        } else if (-remaining > periodNanos) {
+            overruns++;
+            nextTickNanos = now;
+        }
+
+        lastDt = (now - lastTickNanos) / 1e9;
+        lastTickNanos = now;
+        nextTickNanos += periodNanos;
+        ticks++;
+
+        double hz = 1.0 / lastDt;
+        loopHz = (loopHz == 0) ? hz : loopHz * 0.9 + hz * 0.1;
+        return lastDt;
+    }
+
+    /** Measured dt of the last tick, in seconds. */
+    public double getLastDt() {
+        return lastDt;
+    }
+
+    /** Smoothed achieved tick rate. */
+    public double getLoopHz() {
+        return loopHz;
+    }
+
+    public double getTargetHz() {
+        return 1e9 / periodNanos;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    /** Number of ticks that started more than one full period late. */
+    public long getOverruns() {
+        return overruns;
+    }
+}
@@ -0,0 +1,13 @@
+package org.firstinspires.ftc.teamcode.Crawler.Control;
+
+/**
+ * Anything that wants to be ticked by the {@link ControlLoopScheduler}.
+ */
+public interface LoopController {
+    /**
+     * Run one control step.
+     * @param dtSeconds measured time since the previous tick, in seconds
+     * @return true once the controller is finished (ignored for registered background controllers)
+     */
+    boolean update(double dtSeconds);
+}
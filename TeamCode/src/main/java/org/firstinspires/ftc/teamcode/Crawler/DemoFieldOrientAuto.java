@@ -1,16 +1,30 @@
 package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
 
-import com.arcrobotics.ftclib.geometry.Pose2d;
-import com.arcrobotics.ftclib.geometry.Rotation2d;
+import static org.firstinspires.ftc.teamcode.Crawler.FieldOrient.DemoFieldOrientAutoTrajectories.*;
+
 import com.qualcomm.robotcore.eventloop.opmode.Autonomous;
 
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+import org.firstinspires.ftc.teamcode.Crawler.Path.SplinePath;
+import org.firstinspires.ftc.teamcode.annotations.Trajectory;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Demo Autonomous OpMode using Field-Oriented Path Following.
+ * <p>
+ * The path is declared with {@link Trajectory}, so the spline and its profile are worked out
+ * when the code is built and the OpMode only loads the tables.
  */
 @Autonomous(name = "Demo Field Orient Path Follow", group = "Examples")
+@Trajectory(name = "loop", waypoints = {
+        0, 0, 0,      // start at the origin, facing forward
+        60, 0, 0,     // move forward 60 cm
+        60, 30, 90,   // curve to a point 60 cm forward and 30 cm right, facing 90 degrees
+        0, 30, 180    // return toward the start line
+}, maxVelocity = 80, maxAcceleration = 120)
 public class DemoFieldOrientAuto extends Follower {
 
     /**
@@ -19,8 +33,7 @@ public class DemoFieldOrientAuto extends Follower {
      */
     @Override
     protected void initSystems() {
-        telemetry.addLine("✓ Systems Initialized");
-        telemetry.update();
+        telemetryPipeline.setText(telemetryPipeline.slot("Status", "%s"), "✓ Systems Initialized");
     }
 
     /**
@@ -28,46 +41,27 @@ public class DemoFieldOrientAuto extends Follower {
      */
     @Override
     protected void runPathInstructions() throws InterruptedException {
-        telemetry.addLine("Starting path following...");
-        telemetry.update();
+        telemetryPipeline.setText(telemetryPipeline.slot("Status", "%s"), "Starting path following...");
 
-        // 1. Create waypoints for the path (using CM as per previous requirement)
-        List<Pose2d> path = createPath();
+        // 1. The spline and its profile, fitted at build time from the @Trajectory above (cm)
+        SplinePath spline = SplinePath.fromSamples(LOOP_LENGTH, LOOP_X, LOOP_Y, LOOP_TANGENT, LOOP_CURVATURE);
+        MotionProfile profile = MotionProfile.fromSamples(LOOP_PROFILE_DT,
+                LOOP_PROFILE_POSITION, LOOP_PROFILE_VELOCITY, LOOP_PROFILE_ACCELERATION);
 
         // 2. Create markers (trigger actions at specific % of path completion)
         List<PathMarker> markers = createMarkers();
 
         // 3. Run the path using the inherited runPath method
-        runPath(path, markers);
+        runPath(spline, profile, markers);
 
-        telemetry.addLine("Path complete!");
-        telemetry.update();
+        telemetryPipeline.setText(telemetryPipeline.slot("Status", "%s"), "Path complete!");
 
         // Example of an action after path completion
+        // (tickFor, not sleep: the flywheel loop only runs while the robot is ticked)
         robot.activateShooters(false);
-        sleep(500);
+        tickFor(500);
         robot.activateShooters(true);
-    }
-
-    /**
-     * Define your path as a series of waypoints in Centimeters.
-     */
-    private List<Pose2d> createPath() {
-        List<Pose2d> waypoints = new ArrayList<>();
-
-        // Start pose (origin, facing forward)
-        waypoints.add(new Pose2d(0, 0, new Rotation2d(0)));
-
-        // Move forward 60 cm
-        waypoints.add(new Pose2d(60, 0, new Rotation2d(0)));
-
-        // Curve to a point 60cm forward and 30cm right, facing 90 degrees
-        waypoints.add(new Pose2d(60, 30, Rotation2d.fromDegrees(90)));
-
-        // Return toward start line
-        waypoints.add(new Pose2d(0, 30, Rotation2d.fromDegrees(180)));
-
-        return waypoints;
+        tickFor(50);
     }
 
     /**
@@ -80,26 +74,30 @@ public class DemoFieldOrientAuto extends Follower {
         // At 25.5% of path: Start the gobbler
         markers.add(new PathMarker(25.5, () -> {
             robot.activateGobbler(true);
-            telemetry.addData("Marker", "25.5% - Gobbler On");
-            telemetry.update();
+            telemetryPipeline.setText(telemetryPipeline.slot("Marker", "%s"), "25.5% - Gobbler On");
         }));
 
         // At 50% of path: Rotate the indexer
-        markers.add(new PathMarker(50, () -> {
-            try {
-                robot.cycleIndexer();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+        // (keeps driving while it turns, and stops the indexer if the path ends first)
+        markers.add(PathMarker.async(50, new AsyncRobotAction() {
+            @Override
+            public CompletableFuture<?> start() {
+                int markerSlot = telemetryPipeline.slot("Marker", "%s");
+                telemetryPipeline.setText(markerSlot, "50% - Indexer Cycling");
+                return robot.cycleIndexer().thenAccept(result ->
+                        telemetryPipeline.setText(markerSlot, "50% - Indexer " + result));
+            }
+
+            @Override
+            public void cancel() {
+                robot.indexerController.cancel();
             }
-            telemetry.addData("Marker", "50% - Indexer Cycled");
-            telemetry.update();
         }));
 
         // At 85% of path: Stop the gobbler
         markers.add(new PathMarker(85, () -> {
             robot.activateGobbler(false);
-            telemetry.addData("Marker", "85% - Gobbler Off");
-            telemetry.update();
+            telemetryPipeline.setText(telemetryPipeline.slot("Marker", "%s"), "85% - Gobbler Off");
         }));
 
         return markers;
@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode.Crawler.Diagnostics;
+
+import android.os.Debug;
+
+import java.lang.reflect.Method;
+
+/**
+ * Counts what the calling thread allocates while running some code, for the benchmarks and
+ * the tests that keep the control loop allocation-free.
+ * <p>
+ * On the robot the count comes from ART's per-thread allocation counter in {@link Debug}.
+ * It has been deprecated since API 23 but is still the only per-thread count, so the
+ * deprecated calls are kept in here. On a desktop JVM (unit tests, benchmarks run from a PC)
+ * it is the thread's allocated bytes from the JVM's management bean instead, looked up by
+ * reflection because Android doesn't have that API. Either way, 0 means nothing was allocated.
+ */
+public final class AllocationCounter {
+    /** Returned when this runtime has no way to count. */
+    public static final long UNAVAILABLE = -1;
+
+    private static final int COUNTED_RUNS = 3;
+
+    private static final boolean ART = isArt();
+    private static final Object THREAD_BEAN;
+    private static final Method ALLOCATED_BYTES;
+
+    static {
+        Object bean = null;
+        Method method = null;
+        try {
+            bean = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean").invoke(null);
+            method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+            // Reflective calls change implementation after the first few; get that over with here
+            long id = Thread.currentThread().getId();
+            for (int i = 0; i < 50; i++) method.invoke(bean, id);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            method = null; // Android, or a JVM without per-thread allocation counts
+        }
+        THREAD_BEAN = bean;
+        ALLOCATED_BYTES = method;
+    }
+
+    private AllocationCounter() {}
+
+    /**
+     * Count what {@code work} allocates in steady state: objects on ART, bytes on a desktop JVM.
+     * <p>
+     * The first run isn't counted, so class loading and linking don't show up. After that the
+     * lowest of a few counted runs is taken: the JIT finishing a compile mid-run can allocate
+     * a little on the thread, but code that really allocates does so every run. {@code work}
+     * has to be safe to repeat.
+     * @return the count, or {@link #UNAVAILABLE}
+     */
+    public static long count(Runnable work) {
+        work.run();
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < COUNTED_RUNS; i++) {
+            long allocated = ART ? artObjects(work) : jvmBytes(work);
+            if (allocated == UNAVAILABLE) return UNAVAILABLE;
+            lowest = Math.min(lowest, allocated);
+        }
+        return lowest;
+    }
+
+    /** What {@link #count} counts on this runtime, for reports. */
+    public static String unit() {
+        if (ART) return "objects";
+        return ALLOCATED_BYTES != null ? "bytes" : "n/a";
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long artObjects(Runnable work) {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        work.run();
+        Debug.stopAllocCounting();
+        return Debug.getThreadAllocCount();
+    }
+
+    private static long jvmBytes(Runnable work) {
+        if (ALLOCATED_BYTES == null) return UNAVAILABLE;
+        long id = Thread.currentThread().getId();
+        // Reading the counter through reflection can allocate itself; measure that on its own
+        long overhead = -allocatedBytes(id) + allocatedBytes(id);
+        long before = allocatedBytes(id);
+        work.run();
+        long after = allocatedBytes(id);
+        return Math.max(0, after - before - overhead);
+    }
+
+    private static long allocatedBytes(long threadId) {
+        try {
+            return (Long) ALLOCATED_BYTES.invoke(THREAD_BEAN, threadId);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Off the robot, android.jar's Debug methods only throw
+    @SuppressWarnings("deprecation")
+    private static boolean isArt() {
+        try {
+            Debug.getThreadAllocCount();
+            return true;
+        } catch (RuntimeException | LinkageError e) {
+            return false;
+        }
+    }
+}
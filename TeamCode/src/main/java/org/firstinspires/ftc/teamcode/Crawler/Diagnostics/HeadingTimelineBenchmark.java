@@ -0,0 +1,197 @@
+package org.firstinspires.ftc.teamcode.Crawler.Diagnostics;
+
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.util.ReadWriteFile;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.AnimationBuilder;
+import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.HeadingTimeline;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Times {@link HeadingTimeline} lookups the way {@code arc} makes them (progress creeping from
+ * 0 to 1, one call per loop) against the old TreeMap timeline, and counts allocations per call.
+ * Run it on the Control Hub for real numbers; {@link #run()} also works from a plain JVM.
+ * <p>
+ * Both timelines are checked to give the same headings before anything is timed.
+ */
+@TeleOp(name = "Benchmark: Heading Timeline", group = "Benchmarks")
+public class HeadingTimelineBenchmark extends LinearOpMode {
+    private static final int[] KEYFRAME_COUNTS = {4, 16, 64};
+    private static final int CALLS = 200_000;
+    private static final double START_HEADING = 15;
+
+    // Results land here so the JIT can't drop the work
+    private static volatile double blackhole;
+
+    @Override
+    public void runOpMode() {
+        telemetry.addLine("Press start to run, takes a few seconds");
+        telemetry.update();
+        waitForStart();
+
+        String report = run();
+        telemetry.addLine(report);
+        telemetry.update();
+        try {
+            ReadWriteFile.writeFile(new File(AppUtil.ROBOT_DATA_DIR, "benchmark_heading_timeline.txt"), report);
+        } catch (RuntimeException e) {
+            RobotLog.ee("HeadingTimelineBenchmark", e, "Could not write benchmark report");
+        }
+        while (opModeIsActive()) idle();
+    }
+
+    public static String run() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "%9s %12s %12s %12s %12s %10s%n",
+                "keyframes", "treemap ns", "arrays ns", "treemap a/c", "arrays a/c", "max diff"));
+        for (int keyframes : KEYFRAME_COUNTS) {
+            AnimationBuilder animator = keyframes(keyframes);
+
+            double difference = maxDifference(animator);
+
+            // Warm up both so the JIT has settled
+            timeLegacy(animator);
+            timeArrays(animator);
+
+            double legacy = timeLegacy(animator);
+            double arrays = timeArrays(animator);
+            double legacyAllocs = legacyAllocationsPerCall(animator);
+            double arrayAllocs = arrayAllocationsPerCall(animator);
+            report.append(String.format(Locale.US, "%9d %12.1f %12.1f %12s %12s %10.2g%n", keyframes, legacy, arrays,
+                    allocations(legacyAllocs), allocations(arrayAllocs), difference));
+        }
+        report.append("a/c: allocations per call, in ").append(AllocationCounter.unit()).append('\n');
+        return report.toString();
+    }
+
+    // Nanoseconds per getTarget call over one sweep of progress
+    private static double timeLegacy(AnimationBuilder animator) {
+        LegacyHeadingTimeline timeline = legacy(animator);
+        long start = System.nanoTime();
+        double sink = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sink += timeline.getTarget((double) i / CALLS, START_HEADING);
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole = sink;
+        return (double) elapsed / CALLS;
+    }
+
+    private static double timeArrays(AnimationBuilder animator) {
+        HeadingTimeline timeline = HeadingTimeline.build(animator, START_HEADING);
+        long start = System.nanoTime();
+        double sink = 0;
+        for (int i = 0; i < CALLS; i++) {
+            sink += timeline.getTarget((double) i / CALLS);
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole = sink;
+        return (double) elapsed / CALLS;
+    }
+
+    // Allocations per call counted by AllocationCounter, -1 where it can't count
+    private static double legacyAllocationsPerCall(AnimationBuilder animator) {
+        LegacyHeadingTimeline timeline = legacy(animator);
+        timeline.getTarget(0, START_HEADING); // let it insert its start keyframe first
+        int calls = CALLS / 10;
+        return perCall(AllocationCounter.count(() -> {
+            double sink = 0;
+            for (int i = 0; i < calls; i++) sink += timeline.getTarget((double) i / calls, START_HEADING);
+            blackhole = sink;
+        }), calls);
+    }
+
+    private static double arrayAllocationsPerCall(AnimationBuilder animator) {
+        HeadingTimeline timeline = HeadingTimeline.build(animator, START_HEADING);
+        int calls = CALLS / 10;
+        return perCall(AllocationCounter.count(() -> {
+            double sink = 0;
+            for (int i = 0; i < calls; i++) sink += timeline.getTarget((double) i / calls);
+            blackhole = sink;
+        }), calls);
+    }
+
+    private static double perCall(long allocations, int calls) {
+        return allocations == AllocationCounter.UNAVAILABLE ? -1 : (double) allocations / calls;
+    }
+
+    // Largest disagreement between the two over a sweep, degrees
+    private static double maxDifference(AnimationBuilder animator) {
+        LegacyHeadingTimeline legacy = legacy(animator);
+        HeadingTimeline arrays = HeadingTimeline.build(animator, START_HEADING);
+        double max = 0;
+        for (int i = 0; i <= 10_000; i++) {
+            double progress = i / 10_000.0;
+            max = Math.max(max, Math.abs(legacy.getTarget(progress, START_HEADING) - arrays.getTarget(progress)));
+        }
+        return max;
+    }
+
+    // Keyframes spread over the move, with headings that cross the +-180 wrap
+    private static AnimationBuilder keyframes(int count) {
+        return timeline -> {
+            for (int i = 1; i <= count; i++) {
+                timeline.at((double) i / count, (i * 137) % 360 - 180);
+            }
+        };
+    }
+
+    private static LegacyHeadingTimeline legacy(AnimationBuilder animator) {
+        // Replays the same instructions into the old timeline
+        LegacyHeadingTimeline timeline = new LegacyHeadingTimeline();
+        HeadingTimeline.Builder recorder = new HeadingTimeline.Builder() {
+            @Override
+            public HeadingTimeline.Builder at(double percentage, double heading) {
+                timeline.at(percentage, heading);
+                return this;
+            }
+        };
+        animator.build(recorder);
+        return timeline;
+    }
+
+    private static String allocations(double perCall) {
+        return perCall < 0 ? "n/a" : String.format(Locale.US, "%.2f", perCall);
+    }
+
+    // --- The timeline arc() used before, kept as the baseline ---
+
+    private static class LegacyHeadingTimeline {
+        private final TreeMap<Double, Double> keyframes = new TreeMap<>();
+
+        LegacyHeadingTimeline at(double percentage, double heading) {
+            percentage = Math.max(0, Math.min(1.0, percentage));
+            keyframes.put(percentage, heading);
+            return this;
+        }
+
+        double getTarget(double progress, double startHeading) {
+            if (!keyframes.containsKey(0.0)) {
+                keyframes.put(0.0, startHeading);
+            }
+
+            Map.Entry<Double, Double> floor = keyframes.floorEntry(progress);
+            Map.Entry<Double, Double> ceiling = keyframes.ceilingEntry(progress);
+
+            if (floor == null) return startHeading;
+            if (ceiling == null) return floor.getValue();
+            if (floor.equals(ceiling)) return floor.getValue();
+
+            double range = ceiling.getKey() - floor.getKey();
+            double progressInSegment = (progress - floor.getKey()) / range;
+
+            double angleDiff = ceiling.getValue() - floor.getValue();
+            while (angleDiff > 180) angleDiff -= 360;
+            while (angleDiff < -180) angleDiff += 360;
+
+            return floor.getValue() + (angleDiff * progressInSegment);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.firstinspires.ftc.teamcode.Crawler.Diagnostics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, allocation-free histogram of durations.
+ * <p>
+ * Buckets are log-linear in microseconds: values under 8 us are exact, above that every
+ * power of two is split into 8 buckets, so any reported value is within 12.5% of the truth.
+ * Everything is preallocated and updated with atomics, so one thread can record while
+ * another reads without locks.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_SHIFT = 27; // tops out around 30 minutes
+    private static final int BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /** Record one duration. */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(bucketFor(nanos / 1000));
+        total.incrementAndGet();
+
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Duration at the given quantile, in milliseconds.
+     * @param quantile 0.0 to 1.0, e.g. 0.99 for p99
+     */
+    public double percentileMs(double quantile) {
+        long count = total.get();
+        if (count == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) return bucketMidpointMicros(i) / 1000.0;
+        }
+        return maxMs();
+    }
+
+    public double maxMs() {
+        return maxNanos.get() / 1e6;
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        total.set(0);
+        maxNanos.set(0);
+    }
+
+    private static int bucketFor(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+
+        int highestBit = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = highestBit - SUB_BITS;
+        if (shift > MAX_SHIFT) return BUCKETS - 1;
+
+        int top = (int) (micros >>> shift); // always 8..15
+        return (shift + 1) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    private static double bucketMidpointMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long top = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        long low = top << shift;
+        long high = (top + 1) << shift;
+        return (low + high) / 2.0;
+    }
+}
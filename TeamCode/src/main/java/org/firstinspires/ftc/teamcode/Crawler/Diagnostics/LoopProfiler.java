@@ -0,0 +1,127 @@
+package org.firstinspires.ftc.teamcode.Crawler.Diagnostics;
+
+import com.qualcomm.robotcore.util.ReadWriteFile;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Records how long each phase of a control loop takes.
+ * <p>
+ * Usage inside a loop:
+ * <pre>
+ *     long t = profiler.start();
+ *     readSensors();
+ *     t = profiler.lap(LoopProfiler.SENSE, t);
+ *     computePid();
+ *     t = profiler.lap(LoopProfiler.CONTROL, t);
+ * </pre>
+ * When disabled every call returns right after a single boolean check, so the calls can stay
+ * in the hot path permanently. Percentiles are only computed when a {@link TelemetryPipeline}
+ * asks for them, on its own thread.
+ */
+public class LoopProfiler implements TelemetryPipeline.Provider {
+    public static final int SENSE = 0;
+    public static final int CONTROL = 1;
+    public static final int OUTPUT = 2;
+    public static final int TELEMETRY = 3;
+    public static final int LOOP = 4;
+
+    private static final String[] PHASE_NAMES = {"sense", "control", "output", "telemetry", "loop"};
+
+    private final boolean enabled;
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASE_NAMES.length];
+    private long lastLoopNanos = 0;
+    private int hzSlot = -1;
+    private final int[] phaseSlots = new int[PHASE_NAMES.length];
+
+    public LoopProfiler(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Timestamp to pass to the first {@link #lap}. */
+    public long start() {
+        if (!enabled) return 0;
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the time since {@code startNanos} against {@code phase}.
+     * @return the current time, to chain into the next phase
+     */
+    public long lap(int phase, long startNanos) {
+        if (!enabled) return 0;
+        long now = System.nanoTime();
+        phases[phase].record(now - startNanos);
+        return now;
+    }
+
+    /** Call once per loop iteration to track the full period (and so the loop rate). */
+    public void markLoop() {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        if (lastLoopNanos != 0) phases[LOOP].record(now - lastLoopNanos);
+        lastLoopNanos = now;
+    }
+
+    /** Loop rate based on the median loop period. */
+    public double loopHz() {
+        double p50 = phases[LOOP].percentileMs(0.5);
+        return p50 > 0 ? 1000.0 / p50 : 0;
+    }
+
+    public LatencyHistogram getPhase(int phase) {
+        return phases[phase];
+    }
+
+    /** Fill in p50/p99/max for every phase. Runs on the pipeline's sender thread. */
+    @Override
+    public void publish(TelemetryPipeline pipeline) {
+        if (!enabled) return;
+        if (hzSlot < 0) {
+            hzSlot = pipeline.slot("Loop Hz (p50)", "%.1f");
+            for (int i = 0; i < phases.length; i++) {
+                phaseSlots[i] = pipeline.slot(PHASE_NAMES[i], "%.2f / %.2f / %.2f ms");
+            }
+        }
+
+        pipeline.set(hzSlot, loopHz());
+        for (int i = 0; i < phases.length; i++) {
+            LatencyHistogram h = phases[i];
+            pipeline.set(phaseSlots[i], h.percentileMs(0.5), h.percentileMs(0.99), h.maxMs());
+        }
+    }
+
+    /**
+     * Dump the histograms to {@code loop_profile_<name>.txt} in the robot data folder.
+     * Meant to be called once when the OpMode ends.
+     */
+    public void writeReport(String name) {
+        if (!enabled) return;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "%s loop profile, %.1f Hz (p50)%n", name, loopHz()));
+        report.append(String.format(Locale.US, "%-10s %8s %8s %8s %8s%n", "phase", "count", "p50 ms", "p99 ms", "max ms"));
+        for (int i = 0; i < phases.length; i++) {
+            LatencyHistogram h = phases[i];
+            report.append(String.format(Locale.US, "%-10s %8d %8.2f %8.2f %8.2f%n", PHASE_NAMES[i],
+                    h.count(), h.percentileMs(0.5), h.percentileMs(0.99), h.maxMs()));
+        }
+
+        try {
+            ReadWriteFile.writeFile(new File(AppUtil.ROBOT_DATA_DIR, "loop_profile_" + name + ".txt"), report.toString());
+        } catch (RuntimeException e) {
+            RobotLog.ee("LoopProfiler", e, "Could not write loop profile");
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.firstinspires.ftc.teamcode.Crawler.Diagnostics;
+
+import com.arcrobotics.ftclib.geometry.Pose2d;
+import com.arcrobotics.ftclib.geometry.Rotation2d;
+import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
+import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import com.qualcomm.robotcore.util.ReadWriteFile;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.MutablePose;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.ThreeWheelLocalizer;
+import org.firstinspires.ftc.teamcode.Crawler.Path.PosePaths;
+import org.firstinspires.ftc.teamcode.Crawler.Path.PurePursuitPath;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Times the lookahead search on long paths: the old scan over every segment against the
+ * windowed cursor in {@link PurePursuitPath}. Run it on the Control Hub for real numbers;
+ * {@link #run()} also works from a plain JVM.
+ * <p>
+ * The robot is simulated driving along a serpentine path with 1 cm point spacing, sitting
+ * slightly off the line like it would in practice.
+ * <p>
+ * It also counts allocations in the follower's steady-state work (localizer update, pose copy,
+ * lookahead). That has to stay at zero so the GC never pauses mid-path.
+ */
+@TeleOp(name = "Benchmark: Lookahead Search", group = "Benchmarks")
+public class PathBenchmark extends LinearOpMode {
+    private static final int[] POINT_COUNTS = {100, 1000, 5000};
+    private static final double RADIUS = 5;
+    private static final int WINDOW = 12;
+
+    // Results land here so the JIT can't drop the work
+    private static volatile double blackhole;
+
+    @Override
+    public void runOpMode() {
+        telemetry.addLine("Press start to run, takes a few seconds");
+        telemetry.update();
+        waitForStart();
+
+        String report = run();
+        telemetry.addLine(report);
+        telemetry.update();
+        try {
+            ReadWriteFile.writeFile(new File(AppUtil.ROBOT_DATA_DIR, "benchmark_lookahead.txt"), report);
+        } catch (RuntimeException e) {
+            RobotLog.ee("PathBenchmark", e, "Could not write benchmark report");
+        }
+        while (opModeIsActive()) idle();
+    }
+
+    public static String run() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "%8s %14s %14s%n", "points", "full scan ns", "cursor ns"));
+        for (int points : POINT_COUNTS) {
+            List<Pose2d> poses = serpentine(points);
+            double[] robot = robotTrack(poses);
+
+            // Warm up both so the JIT has settled
+            timeFullScan(poses, robot);
+            timeCursor(poses, robot);
+
+            double full = timeFullScan(poses, robot);
+            double cursor = timeCursor(poses, robot);
+            report.append(String.format(Locale.US, "%8d %14.0f %14.0f%n", points, full, cursor));
+        }
+
+        double allocations = followerAllocationsPerIteration();
+        if (allocations < 0) {
+            report.append("Allocations per iteration: n/a\n");
+        } else {
+            report.append(String.format(Locale.US, "Allocations per iteration: %.3f %s%n", allocations, AllocationCounter.unit()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Allocations per steady-state follower iteration, counted by {@link AllocationCounter}. Should be 0.
+     * @return -1 when this runtime can't count
+     */
+    public static double followerAllocationsPerIteration() {
+        List<Pose2d> poses = serpentine(1000);
+        double[] robot = robotTrack(poses);
+        PurePursuitPath path = PosePaths.pursuitPath(poses, WINDOW);
+        ThreeWheelLocalizer localizer = new ThreeWheelLocalizer(null, 0.01, 30, 10, 1, 1, 1);
+        MutablePose pose = new MutablePose();
+        double[] out = new double[2];
+        int iterations = robot.length / 2;
+
+        // Warm up first, so the JIT has settled before counting
+        runFollowerSteps(localizer, path, pose, out, iterations);
+
+        long allocations = AllocationCounter.count(() -> {
+            path.reset();
+            runFollowerSteps(localizer, path, pose, out, iterations);
+        });
+        return allocations == AllocationCounter.UNAVAILABLE ? -1 : (double) allocations / iterations;
+    }
+
+    private static void runFollowerSteps(ThreeWheelLocalizer localizer, PurePursuitPath path,
+                                         MutablePose pose, double[] out, int iterations) {
+        double sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            localizer.update(i * 10, i * 10, i, 0, i * 20_000_000L);
+            localizer.getPose(pose);
+            path.findLookahead(pose.x, pose.y, RADIUS, out);
+            sink += Math.atan2(out[1] - pose.y, out[0] - pose.x) + pose.distanceTo(out[0], out[1]);
+        }
+        blackhole = sink;
+    }
+
+    // Nanoseconds per lookahead call
+    private static double timeFullScan(List<Pose2d> poses, double[] robot) {
+        int calls = robot.length / 2;
+        long start = System.nanoTime();
+        double sink = 0;
+        for (int i = 0; i < calls; i++) {
+            Pose2d robotPose = new Pose2d(robot[2 * i], robot[2 * i + 1], new Rotation2d());
+            sink += fullScan(robotPose, poses, RADIUS).getX();
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole = sink;
+        return (double) elapsed / calls;
+    }
+
+    private static double timeCursor(List<Pose2d> poses, double[] robot) {
+        PurePursuitPath path = PosePaths.pursuitPath(poses, WINDOW);
+        double[] out = new double[2];
+        int calls = robot.length / 2;
+        long start = System.nanoTime();
+        double sink = 0;
+        for (int i = 0; i < calls; i++) {
+            path.findLookahead(robot[2 * i], robot[2 * i + 1], RADIUS, out);
+            sink += out[0];
+        }
+        long elapsed = System.nanoTime() - start;
+        blackhole = sink;
+        return (double) elapsed / calls;
+    }
+
+    // Rows 100 cm long, 20 cm apart, so later rows pass close to earlier ones
+    private static List<Pose2d> serpentine(int points) {
+        List<Pose2d> poses = new ArrayList<>(points);
+        for (int i = 0; i < points; i++) {
+            int row = i / 100;
+            int col = i % 100;
+            double x = (row % 2 == 0) ? col : 99 - col;
+            poses.add(new Pose2d(x, row * 20.0, new Rotation2d()));
+        }
+        return poses;
+    }
+
+    // Every point of the path, shifted 0.5 cm off the line
+    private static double[] robotTrack(List<Pose2d> poses) {
+        double[] robot = new double[poses.size() * 2];
+        for (int i = 0; i < poses.size(); i++) {
+            robot[2 * i] = poses.get(i).getX();
+            robot[2 * i + 1] = poses.get(i).getY() + 0.5;
+        }
+        return robot;
+    }
+
+    // --- The search Follower used before PurePursuitPath, kept as the baseline ---
+
+    private static Pose2d fullScan(Pose2d robotPose, List<Pose2d> path, double radius) {
+        Pose2d lookahead = path.get(path.size() - 1);
+        for (int i = 0; i < path.size() - 1; i++) {
+            List<Pose2d> intersections = lineCircleIntersection(robotPose, radius, path.get(i), path.get(i + 1));
+            if (!intersections.isEmpty()) {
+                lookahead = intersections.get(intersections.size() - 1);
+            }
+        }
+        return lookahead;
+    }
+
+    private static List<Pose2d> lineCircleIntersection(Pose2d robotPos, double radius, Pose2d start, Pose2d end) {
+        List<Pose2d> intersections = new ArrayList<>();
+        double x1 = start.getX() - robotPos.getX();
+        double y1 = start.getY() - robotPos.getY();
+        double x2 = end.getX() - robotPos.getX();
+        double y2 = end.getY() - robotPos.getY();
+
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double dr = Math.sqrt(dx * dx + dy * dy);
+        double D = x1 * y2 - x2 * y1;
+
+        double disc = Math.pow(radius, 2) * Math.pow(dr, 2) - Math.pow(D, 2);
+        if (disc >= 0) {
+            double root = Math.sqrt(disc);
+            double solX1 = (D * dy + (dy < 0 ? -1 : 1) * dx * root) / (dr * dr);
+            double solY1 = (-D * dx + Math.abs(dy) * root) / (dr * dr);
+            double solX2 = (D * dy - (dy < 0 ? -1 : 1) * dx * root) / (dr * dr);
+            double solY2 = (-D * dx - Math.abs(dy) * root) / (dr * dr);
+
+            Pose2d p1 = new Pose2d(solX1 + robotPos.getX(), solY1 + robotPos.getY(), start.getRotation());
+            Pose2d p2 = new Pose2d(solX2 + robotPos.getX(), solY2 + robotPos.getY(), start.getRotation());
+
+            if (isPointOnSegment(p1, start, end)) intersections.add(p1);
+            if (isPointOnSegment(p2, start, end)) intersections.add(p2);
+        }
+        return intersections;
+    }
+
+    private static boolean isPointOnSegment(Pose2d p, Pose2d start, Pose2d end) {
+        return p.getX() >= Math.min(start.getX(), end.getX()) - 0.1 &&
+                p.getX() <= Math.max(start.getX(), end.getX()) + 0.1 &&
+                p.getY() >= Math.min(start.getY(), end.getY()) - 0.1 &&
+                p.getY() <= Math.max(start.getY(), end.getY()) + 0.1;
+    }
+}
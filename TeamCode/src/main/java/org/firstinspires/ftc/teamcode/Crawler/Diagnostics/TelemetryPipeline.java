@@ -0,0 +1,217 @@
+package org.firstinspires.ftc.teamcode.Crawler.Diagnostics;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.Telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Moves telemetry formatting and sending off the control thread.
+ * <p>
+ * Each line is a preallocated slot. The hot path only stores raw numbers into its slots
+ * ({@link #set}), which is a couple of atomic writes with no allocation. A low-priority thread
+ * formats every visible slot and calls {@link Telemetry#update()} at a fixed rate.
+ * <p>
+ * Register slots with {@link #slot} before entering a loop, not inside it. While the pipeline is
+ * running it owns {@code telemetry.update()}; anything calling it directly will be overwritten
+ * on the next send.
+ */
+public class TelemetryPipeline implements Runnable {
+    /** Called on the sender thread right before every send, to fill slots lazily. */
+    public interface Provider {
+        void publish(TelemetryPipeline pipeline);
+    }
+
+    private static final int MAX_SLOTS = 48;
+    private static final int VALUES_PER_SLOT = 4;
+
+    private final Telemetry telemetry;
+    private final long periodMs;
+
+    private final String[] captions = new String[MAX_SLOTS];
+    private final String[] formats = new String[MAX_SLOTS];
+    private final int[] arity = new int[MAX_SLOTS];
+    private volatile int slotCount = 0;
+
+    private final AtomicLongArray values = new AtomicLongArray(MAX_SLOTS * VALUES_PER_SLOT);
+    private final AtomicReferenceArray<String> texts = new AtomicReferenceArray<>(MAX_SLOTS);
+    private final AtomicIntegerArray visible = new AtomicIntegerArray(MAX_SLOTS);
+    private final List<Provider> providers = new ArrayList<>();
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public TelemetryPipeline(Telemetry telemetry, double hz) {
+        this.telemetry = telemetry;
+        this.periodMs = Math.max(1, (long) (1000 / hz));
+    }
+
+    /**
+     * Get the slot for a caption, registering it the first time.
+     * @param format format for the slot's values, e.g. {@code "%.2f"} or {@code "%.1f %.1f %.1f"};
+     *               use {@code "%s"} for text slots and null for a bare line (see {@link #line})
+     */
+    public synchronized int slot(String caption, String format) {
+        for (int i = 0; i < slotCount; i++) {
+            if (captions[i].equals(caption)) return i;
+        }
+        if (slotCount == MAX_SLOTS) {
+            throw new IllegalStateException("Out of telemetry slots registering " + caption);
+        }
+
+        int id = slotCount;
+        captions[id] = caption;
+        formats[id] = format;
+        slotCount = id + 1; // volatile write publishes the caption/format to the sender
+        return id;
+    }
+
+    /** Register a fixed line of text and show it. Registering the same text again is a no-op. */
+    public int line(String text) {
+        int id = slot(text, null);
+        show(id, 0);
+        return id;
+    }
+
+    /** Register something to be asked for fresh values right before each send. */
+    public synchronized void addProvider(Provider provider) {
+        providers.add(provider);
+    }
+
+    public void set(int slot, double value) {
+        values.lazySet(slot * VALUES_PER_SLOT, Double.doubleToRawLongBits(value));
+        show(slot, 1);
+    }
+
+    public void set(int slot, double a, double b) {
+        int base = slot * VALUES_PER_SLOT;
+        values.lazySet(base, Double.doubleToRawLongBits(a));
+        values.lazySet(base + 1, Double.doubleToRawLongBits(b));
+        show(slot, 2);
+    }
+
+    public void set(int slot, double a, double b, double c) {
+        int base = slot * VALUES_PER_SLOT;
+        values.lazySet(base, Double.doubleToRawLongBits(a));
+        values.lazySet(base + 1, Double.doubleToRawLongBits(b));
+        values.lazySet(base + 2, Double.doubleToRawLongBits(c));
+        show(slot, 3);
+    }
+
+    public void set(int slot, double a, double b, double c, double d) {
+        int base = slot * VALUES_PER_SLOT;
+        values.lazySet(base, Double.doubleToRawLongBits(a));
+        values.lazySet(base + 1, Double.doubleToRawLongBits(b));
+        values.lazySet(base + 2, Double.doubleToRawLongBits(c));
+        values.lazySet(base + 3, Double.doubleToRawLongBits(d));
+        show(slot, 4);
+    }
+
+    /** Show a piece of text. Meant for constants or strings built outside the loop. */
+    public void setText(int slot, String text) {
+        texts.lazySet(slot, text);
+        show(slot, 0);
+    }
+
+    /** Show a slot again with whatever it last held, e.g. a {@link #line} that was hidden. */
+    public void show(int slot) {
+        visible.lazySet(slot, 1);
+    }
+
+    /** Hide a slot until it is set again. */
+    public void hide(int slot) {
+        visible.lazySet(slot, 0);
+    }
+
+    private void show(int slot, int valueCount) {
+        arity[slot] = valueCount;
+        visible.lazySet(slot, 1);
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "TelemetryPipeline");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /** Stop the sender thread after one last send. */
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            thread.join(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                send();
+                Thread.sleep(periodMs);
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                RobotLog.ww("TelemetryPipeline", "Telemetry send failed: %s", e.getMessage());
+            }
+        }
+        send();
+    }
+
+    /** Format and send everything now. Also usable without the thread, e.g. during init. */
+    public void send() {
+        Provider[] snapshot;
+        synchronized (this) {
+            snapshot = providers.toArray(new Provider[0]);
+        }
+        for (Provider provider : snapshot) {
+            provider.publish(this);
+        }
+
+        int count = slotCount;
+        for (int i = 0; i < count; i++) {
+            if (visible.get(i) == 0) continue;
+
+            if (formats[i] == null) {
+                telemetry.addLine(captions[i]);
+                continue;
+            }
+
+            int base = i * VALUES_PER_SLOT;
+            switch (arity[i]) {
+                case 0:
+                    telemetry.addData(captions[i], formats[i], texts.get(i));
+                    break;
+                case 1:
+                    telemetry.addData(captions[i], formats[i], value(base));
+                    break;
+                case 2:
+                    telemetry.addData(captions[i], formats[i], value(base), value(base + 1));
+                    break;
+                case 3:
+                    telemetry.addData(captions[i], formats[i], value(base), value(base + 1), value(base + 2));
+                    break;
+                default:
+                    telemetry.addData(captions[i], formats[i], value(base), value(base + 1), value(base + 2), value(base + 3));
+                    break;
+            }
+        }
+        telemetry.update();
+    }
+
+    private double value(int index) {
+        return Double.longBitsToDouble(values.get(index));
+    }
+}
@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A marker action that keeps running after it is triggered, like an indexer move.
+ * The path keeps following while it runs.
+ */
+public interface AsyncRobotAction {
+    /**
+     * Start the action and return right away.
+     * @return completes when the action is done
+     */
+    CompletableFuture<?> start();
+
+    /** Called if the path ends before the action is done. Stop any hardware it was moving. */
+    default void cancel() {}
+}
@@ -1,29 +1,73 @@
 package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
 
-import static org.firstinspires.ftc.teamcode.Crawler.RobotConfig.FINISH_THRESHOLD_CM;
-
+import com.arcrobotics.ftclib.command.CommandScheduler;
 import com.arcrobotics.ftclib.geometry.Pose2d;
-import com.arcrobotics.ftclib.geometry.Rotation2d;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
-
-import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.Crawler.Control.ControlLoopScheduler;
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.LoopProfiler;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.TelemetryPipeline;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.Localizer;
+import org.firstinspires.ftc.teamcode.Crawler.Path.PosePaths;
+import org.firstinspires.ftc.teamcode.Crawler.Path.PurePursuitPath;
+import org.firstinspires.ftc.teamcode.Crawler.Path.SplinePath;
+import org.firstinspires.ftc.teamcode.Crawler.Path.TrajectoryFile;
 import org.firstinspires.ftc.teamcode.Crawler.Robot;
 import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.AnimationBuilder;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public abstract class Follower extends LinearOpMode {
+    private static final String TAG = "Follower";
+
     protected Robot robot;
+    protected ControlLoopScheduler scheduler;
+    protected LoopProfiler profiler;
+    protected TelemetryPipeline telemetryPipeline;
+    protected Localizer localizer;
     protected double currentLookahead = RobotConfig.defaultLookAheadDistance;
 
-
     @Override
     public void runOpMode() throws InterruptedException {
         robot = new Robot(hardwareMap);
+        localizer = robot.localizer; // picked by RobotConfig.localizer
+        telemetryPipeline = new TelemetryPipeline(telemetry, RobotConfig.telemetryHz);
+
+        // Hubs are in manual bulk caching, encoder reads only move after this
+        profiler = new LoopProfiler(RobotConfig.profileLoops);
+        telemetryPipeline.addProvider(profiler);
+        scheduler = new ControlLoopScheduler(RobotConfig.controlLoopHz);
+        scheduler.register(dt -> {
+            profiler.markLoop();
+            long t = profiler.start();
+            robot.bulkReader.update();
+            profiler.lap(LoopProfiler.SENSE, t);
+            robot.update();
+            CommandScheduler.getInstance().run(); // marker actions
+            return false;
+        });
+
         initSystems();
+        telemetryPipeline.send(); // show whatever initSystems() put up before start
         waitForStart();
-        runPathInstructions();
+
+        telemetryPipeline.start();
+        try {
+            runPathInstructions();
+        } finally {
+            CommandScheduler.getInstance().reset(); // it's a singleton, don't leak commands into the next OpMode
+            robot.close();
+            telemetryPipeline.stop();
+            profiler.writeReport(getClass().getSimpleName());
+        }
     }
 
     /**
@@ -33,42 +77,37 @@ public abstract class Follower extends LinearOpMode {
 
     protected void initSystems() {}
 
+    /**
+     * Like {@code sleep}, but the control loop keeps running: the robot, its subsystems and
+     * any marker commands are still updated while waiting.
+     */
+    protected void tickFor(long millis) {
+        long end = System.nanoTime() + millis * 1_000_000L;
+        scheduler.runUntilDone(dt -> System.nanoTime() >= end, this::opModeIsActive);
+    }
+
     /**
      * The main path-following method.
      * @param path The list of waypoints (Pose2d)
-     * @param markers List of actions to trigger at specific % of the path
+     * @param markers List of actions to trigger along the path (by % or cm of arc length,
+     *                time or region, see {@link PathMarker}). They run on the command scheduler
+     *                alongside the path; any still running when the path ends are cancelled.
      */
     public void runPath(List<Pose2d> path, List<PathMarker> markers) {
         if (path == null || path.isEmpty()) return;
 
-        Pose2d startPose = getRobotPose();
-        Pose2d finalPoint = path.get(path.size() - 1);
-        double totalDistance = Math.hypot(finalPoint.getX() - startPose.getX(), finalPoint.getY() - startPose.getY());
-
-        List<PathMarker> pendingMarkers = new ArrayList<>();
-        if (markers != null) pendingMarkers.addAll(markers);
-
-        while (opModeIsActive() && !isPathFinished(path)) {
-            Pose2d currentPose = getRobotPose();
-
-            // 1. Check Distance Markers
-            double distCovered = Math.hypot(currentPose.getX() - startPose.getX(), currentPose.getY() - startPose.getY());
-            double currentPercent = (distCovered / (totalDistance + 1e-6)) * 100.0;
-
-            for (int i = 0; i < pendingMarkers.size(); i++) {
-                if (currentPercent >= pendingMarkers.get(i).percentage) {
-                    pendingMarkers.get(i).action.execute();
-                    pendingMarkers.remove(i);
-                    i--;
-                }
-            }
-
-            // 2. Pure Pursuit Logic
-            Pose2d lookaheadPoint = findLookaheadPoint(currentPose, path, currentLookahead);
-            driveToPoint(currentPose, lookaheadPoint);
-        }
+        // Indexed once; the lookahead search then only looks a few segments past the robot
+        followPath(PosePaths.pursuitPath(path, RobotConfig.lookaheadSearchWindow), markers, null, null);
+    }
 
-        robot.drive(0, 0, 0); // Stop at end of path
+    /**
+     * Follow waypoints while turning to the headings of a timeline instead of the waypoints'
+     * own, e.g. {@code t -> t.at(0.5, 90).at(1.0, 180)}. Progress is by arc length; headings
+     * are field headings in degrees.
+     */
+    public void runPath(List<Pose2d> path, List<PathMarker> markers, AnimationBuilder headings) {
+        if (path == null || path.isEmpty()) return;
+        followPath(PosePaths.pursuitPath(path, RobotConfig.lookaheadSearchWindow), markers, headings, null);
     }
 
     // Standard runPath without markers
@@ -76,91 +115,84 @@ public abstract class Follower extends LinearOpMode {
         runPath(path, null);
     }
 
-    private void driveToPoint(Pose2d currentPose, Pose2d targetPoint) {
-        double deltaX = targetPoint.getX() - currentPose.getX();
-        double deltaY = targetPoint.getY() - currentPose.getY();
-
-        // Calculate heading to face the target
-        double absoluteAngleToTarget = Math.atan2(deltaY, deltaX);
-        double angleError = AngleUnit.normalizeRadians(absoluteAngleToTarget - currentPose.getHeading());
-        double turnPower = angleError * RobotConfig.STEER_P;
-
-        // Use the distance to the target to calculate speed
-        double distance = Math.hypot(deltaX, deltaY);
-        double driveSpeed = Math.max(RobotConfig.MIN_POWER, Math.min(0.7, distance * RobotConfig.Kp));
-
-        // Normalize deltaX and deltaY to provide direction, then scale by driveSpeed
-        double magnitude = Math.hypot(deltaX, deltaY);
-        double forward = (deltaX / (magnitude + 1e-6)) * driveSpeed;
-        double strafe = (deltaY / (magnitude + 1e-6)) * driveSpeed;
-
-        // Robot class handles IMU rotation for Field Relative movement
-        robot.driveFieldRelative(forward, strafe, turnPower);
+    /**
+     * Follows a spline. The robot chases the spline's own arc-length samples, so it rounds
+     * corners instead of cutting them at the lookahead radius.
+     * @param markers same as for a waypoint list
+     */
+    public void runPath(SplinePath path, List<PathMarker> markers) {
+        if (path == null) return;
+        followPath(path.toPurePursuitPath(currentLookahead), markers, null, null);
     }
 
-    private Pose2d getRobotPose() {
-        double heading = robot.imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS);
-        // Simple 3-wheel localizer approximation
-        double x = (robot.leftEncoder.getDistance() + robot.rightEncoder.getDistance()) / 2.0;
-        double y = robot.centerEncoder.getDistance();
-        return new Pose2d(x, y, new Rotation2d(heading));
+    public void runPath(SplinePath path) {
+        runPath(path, null);
     }
 
-    private boolean isPathFinished(List<Pose2d> path) {
-        if (path.isEmpty()) return true;
-        Pose2d currentPose = getRobotPose();
-        Pose2d finalPoint = path.get(path.size() - 1);
-
-        return Math.hypot(finalPoint.getX() - currentPose.getX(),
-                finalPoint.getY() - currentPose.getY()) < FINISH_THRESHOLD_CM;
+    /**
+     * Follows a spline at the speeds of a profile along it, e.g. one baked by {@code @Trajectory}.
+     * @param profile cm and seconds, over the spline's length
+     */
+    public void runPath(SplinePath path, MotionProfile profile, List<PathMarker> markers) {
+        if (path == null) return;
+        followPath(path.toPurePursuitPath(currentLookahead), markers, null, profile);
     }
 
-    // --- PURE PURSUIT MATH ---
-
-    private Pose2d findLookaheadPoint(Pose2d robotPose, List<Pose2d> path, double radius) {
-        Pose2d lookahead = path.get(path.size() - 1);
-        for (int i = 0; i < path.size() - 1; i++) {
-            List<Pose2d> intersections = lineCircleIntersection(robotPose, radius, path.get(i), path.get(i+1));
-            if (!intersections.isEmpty()) {
-                lookahead = intersections.get(intersections.size() - 1);
-            }
-        }
-        return lookahead;
+    /**
+     * Load a trajectory file from the robot's data folder. Call it from initSystems() so the
+     * read is done before start.
+     */
+    protected TrajectoryFile loadTrajectory(String fileName) throws IOException {
+        long start = System.nanoTime();
+        TrajectoryFile trajectory = TrajectoryFile.load(new File(AppUtil.ROBOT_DATA_DIR, fileName));
+        RobotLog.ii(TAG, "Loaded %s: %d waypoints, %d samples, %d markers in %.2f ms", fileName,
+                trajectory.getWaypointCount(), trajectory.getSampleCount(), trajectory.getMarkerCount(),
+                (System.nanoTime() - start) / 1e6);
+        return trajectory;
     }
 
-    private List<Pose2d> lineCircleIntersection(Pose2d robotPos, double radius, Pose2d start, Pose2d end) {
-        List<Pose2d> intersections = new ArrayList<>();
-        double x1 = start.getX() - robotPos.getX();
-        double y1 = start.getY() - robotPos.getY();
-        double x2 = end.getX() - robotPos.getX();
-        double y2 = end.getY() - robotPos.getY();
-
-        double dx = x2 - x1;
-        double dy = y2 - y1;
-        double dr = Math.sqrt(dx*dx + dy*dy);
-        double D = x1 * y2 - x2 * y1;
-
-        double disc = Math.pow(radius, 2) * Math.pow(dr, 2) - Math.pow(D, 2);
-        if (disc >= 0) {
-            double root = Math.sqrt(disc);
-            double solX1 = (D * dy + (dy < 0 ? -1 : 1) * dx * root) / (dr*dr);
-            double solY1 = (-D * dx + Math.abs(dy) * root) / (dr*dr);
-            double solX2 = (D * dy - (dy < 0 ? -1 : 1) * dx * root) / (dr*dr);
-            double solY2 = (-D * dx - Math.abs(dy) * root) / (dr*dr);
-
-            Pose2d p1 = new Pose2d(solX1 + robotPos.getX(), solY1 + robotPos.getY(), start.getRotation());
-            Pose2d p2 = new Pose2d(solX2 + robotPos.getX(), solY2 + robotPos.getY(), start.getRotation());
-
-            if (isPointOnSegment(p1, start, end)) intersections.add(p1);
-            if (isPointOnSegment(p2, start, end)) intersections.add(p2);
+    /**
+     * Follow a loaded trajectory. If the file has a profile, the robot's speed along the path
+     * follows it instead of slowing with the distance to the lookahead point.
+     * @param actions what to run for each of the file's markers, by name. Markers with no
+     *                action here are logged and left out.
+     */
+    public void runPath(TrajectoryFile trajectory, Map<String, RobotAction> actions) {
+        if (trajectory == null) return;
+
+        List<PathMarker> markers = new ArrayList<>();
+        for (int i = 0; i < trajectory.getMarkerCount(); i++) {
+            String name = trajectory.getMarkerName(i);
+            RobotAction action = actions == null ? null : actions.get(name);
+            if (action == null) {
+                RobotLog.ww(TAG, "No action for trajectory marker '%s'", name);
+                continue;
+            }
+            double a = trajectory.getMarkerA(i);
+            switch (trajectory.getMarkerType(i)) {
+                case TrajectoryFile.MARKER_PERCENT:
+                    markers.add(new PathMarker(a, action));
+                    break;
+                case TrajectoryFile.MARKER_DISTANCE:
+                    markers.add(PathMarker.atDistance(a, action));
+                    break;
+                case TrajectoryFile.MARKER_TIME:
+                    markers.add(PathMarker.atTime(a, action));
+                    break;
+                case TrajectoryFile.MARKER_REGION:
+                    markers.add(PathMarker.inRegion(a, trajectory.getMarkerB(i), trajectory.getMarkerC(i), action));
+                    break;
+            }
         }
-        return intersections;
+        followPath(trajectory.toPurePursuitPath(RobotConfig.lookaheadSearchWindow), markers, null, trajectory.getProfile());
     }
 
-    private static boolean isPointOnSegment(Pose2d p, Pose2d start, Pose2d end) {
-        return p.getX() >= Math.min(start.getX(), end.getX()) - 0.1 &&
-                p.getX() <= Math.max(start.getX(), end.getX()) + 0.1 &&
-                p.getY() >= Math.min(start.getY(), end.getY()) - 0.1 &&
-                p.getY() <= Math.max(start.getY(), end.getY()) + 0.1;
+    // Ticks the path on the control loop until it's done; see PathController
+    private void followPath(PurePursuitPath pursuitPath, List<PathMarker> markers, AnimationBuilder headings, MotionProfile profile) {
+        robot.bulkReader.update();
+        PathController controller = new PathController(robot, localizer, profiler, pursuitPath,
+                markers, headings, profile, currentLookahead);
+        scheduler.runUntilDone(controller, this::opModeIsActive);
+        controller.stop(); // Stop at end of path
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
+
+import com.arcrobotics.ftclib.command.CommandBase;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs a {@link PathMarker}'s action on the FTCLib {@link com.arcrobotics.ftclib.command.CommandScheduler},
+ * so long actions overlap with path following instead of blocking it. Keeps the marker's
+ * status up to date.
+ */
+class MarkerCommand extends CommandBase {
+    private final PathMarker marker;
+    private CompletableFuture<?> future;
+
+    MarkerCommand(PathMarker marker) {
+        this.marker = marker;
+    }
+
+    @Override
+    public void initialize() {
+        marker.startNanos = System.nanoTime();
+        marker.status = PathMarker.Status.RUNNING;
+        if (marker.asyncAction != null) {
+            future = marker.asyncAction.start();
+        } else {
+            marker.action.execute();
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return future == null || future.isDone();
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        marker.endNanos = System.nanoTime();
+        if (interrupted && !isFinished()) {
+            marker.asyncAction.cancel();
+            future.cancel(false);
+            marker.status = PathMarker.Status.CANCELLED;
+        } else {
+            marker.status = PathMarker.Status.COMPLETED;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The markers of one path, ready to be handed out as the robot reaches them.
+ * <p>
+ * Distance and time markers are sorted once into arrays and consumed by a forward cursor,
+ * so a tick only compares against the next one of each. Region markers can fire in any
+ * order and are checked every tick; there are only ever a few.
+ */
+class MarkerQueue {
+    private final PathMarker[] byDistance;
+    private final PathMarker[] byTime;
+    private final PathMarker[] regions;
+    private int distanceCursor = 0;
+    private int timeCursor = 0;
+
+    MarkerQueue(List<PathMarker> markers, double pathLength) {
+        List<PathMarker> distance = new ArrayList<>();
+        List<PathMarker> time = new ArrayList<>();
+        List<PathMarker> region = new ArrayList<>();
+        if (markers != null) {
+            for (PathMarker marker : markers) {
+                marker.status = PathMarker.Status.PENDING;
+                switch (marker.trigger) {
+                    case PERCENT:
+                        marker.triggerAt = marker.value / 100.0 * pathLength;
+                        distance.add(marker);
+                        break;
+                    case DISTANCE:
+                        marker.triggerAt = marker.value;
+                        distance.add(marker);
+                        break;
+                    case TIME:
+                        marker.triggerAt = marker.value;
+                        time.add(marker);
+                        break;
+                    case REGION:
+                        region.add(marker);
+                        break;
+                }
+            }
+        }
+
+        Comparator<PathMarker> order = (a, b) -> Double.compare(a.triggerAt, b.triggerAt);
+        byDistance = distance.toArray(new PathMarker[0]);
+        byTime = time.toArray(new PathMarker[0]);
+        regions = region.toArray(new PathMarker[0]);
+        Arrays.sort(byDistance, order); // stable, so equal markers keep the order they were given in
+        Arrays.sort(byTime, order);
+    }
+
+    /**
+     * The next marker that is due, or null when none are. Call until it returns null.
+     * @param progress arc length covered, cm
+     * @param elapsed seconds since the path started
+     */
+    PathMarker next(double progress, double elapsed, double x, double y) {
+        if (distanceCursor < byDistance.length && byDistance[distanceCursor].triggerAt <= progress) {
+            return byDistance[distanceCursor++];
+        }
+        if (timeCursor < byTime.length && byTime[timeCursor].triggerAt <= elapsed) {
+            return byTime[timeCursor++];
+        }
+        for (PathMarker marker : regions) {
+            if (marker.status == PathMarker.Status.PENDING && marker.isInRegion(x, y)) {
+                marker.status = PathMarker.Status.RUNNING; // claimed; the command sets it again when it starts
+                return marker;
+            }
+        }
+        return null;
+    }
+
+    /** Mark everything the robot never reached as skipped. */
+    void skipRemaining() {
+        for (int i = distanceCursor; i < byDistance.length; i++) byDistance[i].status = PathMarker.Status.SKIPPED;
+        for (int i = timeCursor; i < byTime.length; i++) byTime[i].status = PathMarker.Status.SKIPPED;
+        for (PathMarker marker : regions) {
+            if (marker.status == PathMarker.Status.PENDING) marker.status = PathMarker.Status.SKIPPED;
+        }
+    }
+}
@@ -1,27 +1,116 @@
 package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
 
-import com.arcrobotics.ftclib.command.OdometrySubsystem;
-import com.arcrobotics.ftclib.hardware.motors.MotorEx;
-import com.arcrobotics.ftclib.kinematics.DifferentialOdometry;
+import com.arcrobotics.ftclib.geometry.Pose2d;
+import com.arcrobotics.ftclib.geometry.Rotation2d;
 import com.arcrobotics.ftclib.kinematics.HolonomicOdometry;
-import com.qualcomm.robotcore.hardware.HardwareMap;
 
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.Localizer;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.VelocityTracker;
 import org.firstinspires.ftc.teamcode.Crawler.Robot;
 import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
 
-public class Odometry {
-    Robot robot;
-    public Odometry(HardwareMap hwMap) {
-        robot = new Robot(hwMap);
+/**
+ * {@link Localizer} backed by FTCLib's {@link HolonomicOdometry}, reading the dead wheels
+ * of an existing {@link Robot}. Encoder distances come out of the bulk cache, so
+ * {@link #update()} must run after the bulk read.
+ * <p>
+ * Needs a measured {@link RobotConfig#TRACK_WIDTH}; FTCLib divides by it.
+ * <p>
+ * FTCLib's {@code updatePose(Pose2d)} also zeroes its previous encoder values, which throws
+ * the next update off unless the encoders were just zeroed too. So {@link #setPose} only
+ * moves an offset that FTCLib's pose is carried through, and FTCLib is only re-anchored
+ * in {@link #resetReference()}.
+ */
+public class Odometry implements Localizer {
+    private final Robot robot;
+    public final HolonomicOdometry holonomicOdometry;
+    private final VelocityTracker velocity = new VelocityTracker();
+
+    private double x, y, heading;
+    private long timestampNanos;
+
+    // Field pose = FTCLib's pose rotated by offsetHeading, then shifted by (offsetX, offsetY)
+    private double offsetX, offsetY, offsetHeading;
+
+    public Odometry(Robot robot) {
+        this.robot = robot;
+        holonomicOdometry = new HolonomicOdometry(
+                () -> RobotConfig.leftEncoderSign * robot.leftEncoder.getDistance(),
+                () -> RobotConfig.rightEncoderSign * robot.rightEncoder.getDistance(),
+                () -> RobotConfig.centerEncoderSign * robot.centerEncoder.getDistance(),
+                RobotConfig.TRACK_WIDTH, RobotConfig.CENTER_WHEEL_OFFSET
+        );
+    }
+
+    @Override
+    public void update() {
+        holonomicOdometry.updatePose();
+        Pose2d pose = holonomicOdometry.getPose();
+        double cos = Math.cos(offsetHeading);
+        double sin = Math.sin(offsetHeading);
+        x = offsetX + pose.getX() * cos - pose.getY() * sin;
+        y = offsetY + pose.getX() * sin + pose.getY() * cos;
+        heading = AngleUnit.normalizeRadians(pose.getHeading() + offsetHeading);
+        timestampNanos = robot.bulkReader.getLatest().timestampNanos;
+        velocity.update(x, y, heading, timestampNanos);
+    }
+
+    @Override
+    public void setPose(double x, double y, double heading) {
+        // Solve for the offset that puts FTCLib's current pose at (x, y, heading)
+        Pose2d pose = holonomicOdometry.getPose();
+        offsetHeading = AngleUnit.normalizeRadians(heading - pose.getHeading());
+        double cos = Math.cos(offsetHeading);
+        double sin = Math.sin(offsetHeading);
+        offsetX = x - (pose.getX() * cos - pose.getY() * sin);
+        offsetY = y - (pose.getX() * sin + pose.getY() * cos);
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        velocity.reset();
+    }
+
+    @Override
+    public void resetReference() {
+        // The encoders read zero again: keep FTCLib's pose but let it zero its previous encoder values
+        Pose2d pose = holonomicOdometry.getPose();
+        holonomicOdometry.updatePose(new Pose2d(pose.getX(), pose.getY(), new Rotation2d(pose.getHeading())));
+        velocity.reset();
+    }
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public double getHeading() {
+        return heading;
     }
 
-    public HolonomicOdometry holonomicOdometry = new HolonomicOdometry(
-            robot.leftEncoder::getDistance,
-            robot.rightEncoder::getDistance,
-            robot.centerEncoder::getDistance,
-            RobotConfig.TRACK_WIDTH, RobotConfig.CENTER_WHEEL_OFFSET
-    );
+    @Override
+    public double getVelocityX() {
+        return velocity.getVelocityX();
+    }
 
-    OdometrySubsystem odometry = new OdometrySubsystem(holonomicOdometry);
+    @Override
+    public double getVelocityY() {
+        return velocity.getVelocityY();
+    }
 
+    @Override
+    public double getAngularVelocity() {
+        return velocity.getAngularVelocity();
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
 }
@@ -1,6 +1,6 @@
 package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
 
-import com.qualcomm.robotcore.hardware.HardwareMap;
+import org.firstinspires.ftc.teamcode.Crawler.Robot;
 
 /**
  * Safe wrapper for Odometry initialization.
@@ -11,15 +11,15 @@ public class OdometryManager {
 
     /**
      * Initialize odometry safely.
-     * @param hwMap The HardwareMap from OpMode
+     * @param robot The already initialized Robot, its encoders are shared
      * @return true if successful, false otherwise
      */
-    public boolean init(HardwareMap hwMap) {
+    public boolean init(Robot robot) {
         try {
-            if (hwMap == null) {
-                throw new IllegalArgumentException("HardwareMap cannot be null");
+            if (robot == null) {
+                throw new IllegalArgumentException("Robot cannot be null");
             }
-            odometry = new Odometry(hwMap);
+            odometry = new Odometry(robot);
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -0,0 +1,169 @@
+package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
+
+import static org.firstinspires.ftc.teamcode.Crawler.RobotConfig.FINISH_THRESHOLD_CM;
+
+import com.arcrobotics.ftclib.command.CommandScheduler;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.Crawler.Control.LoopController;
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.LoopProfiler;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.Localizer;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.MutablePose;
+import org.firstinspires.ftc.teamcode.Crawler.Path.PurePursuitPath;
+import org.firstinspires.ftc.teamcode.Crawler.Robot;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.AnimationBuilder;
+import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.HeadingTimeline;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One run of {@link Follower} along a path, ticked by the control loop until the robot reaches
+ * the end. Everything a tick needs is set up in the constructor, so a tick makes no garbage.
+ */
+class PathController implements LoopController {
+    private final Robot robot;
+    private final Localizer localizer;
+    private final LoopProfiler profiler;
+    private final PurePursuitPath path;
+    private final MotionProfile profile;
+    private final HeadingTimeline timeline;
+    private final boolean holdHeading;
+    private final double lookaheadDistance;
+    private final double length;
+
+    // Sorted once; each tick only looks at the head of each queue
+    private final MarkerQueue queue;
+    private final List<MarkerCommand> markerCommands = new ArrayList<>();
+
+    private final MutablePose currentPose = new MutablePose();
+    private final double[] lookahead = new double[2];
+    private final double[] setpoint = new double[3];
+    private final long startNanos;
+
+    /**
+     * @param headings headings by progress; null to hold the path's own headings (or face
+     *                 the lookahead point if it has none or {@code holdPathHeading} is off)
+     * @param profile speed along the path in cm and s, or null to slow down near the lookahead point
+     */
+    PathController(Robot robot, Localizer localizer, LoopProfiler profiler, PurePursuitPath path,
+                   List<PathMarker> markers, AnimationBuilder headings, MotionProfile profile, double lookaheadDistance) {
+        this.robot = robot;
+        this.localizer = localizer;
+        this.profiler = profiler;
+        this.path = path;
+        this.profile = profile;
+        this.lookaheadDistance = lookaheadDistance;
+
+        updateRobotPose();
+        timeline = headings == null ? null : HeadingTimeline.build(headings, Math.toDegrees(currentPose.heading));
+        holdHeading = timeline != null || (RobotConfig.holdPathHeading && path.hasHeadings());
+        length = path.getLength();
+        queue = new MarkerQueue(markers, length);
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public boolean update(double dtSeconds) {
+        long t = profiler.start();
+        updateRobotPose();
+        double elapsed = (System.nanoTime() - startNanos) / 1e9;
+        double progress = path.getProgress(currentPose.x, currentPose.y);
+        if (isPathFinished(progress)) {
+            // Stopping short by the finish threshold still counts as reaching the end, 100% markers included
+            fireMarkers(length, elapsed);
+            return true;
+        }
+
+        // 1. Fire markers by arc length covered, time and region
+        fireMarkers(progress, elapsed);
+
+        // 2. Pure Pursuit Logic
+        path.findLookahead(currentPose.x, currentPose.y, lookaheadDistance, lookahead);
+
+        // 3. Heading, worked out separately so the robot strafes instead of turning to travel
+        double targetHeading = Double.NaN;
+        if (timeline != null) {
+            targetHeading = Math.toRadians(timeline.getTarget(length > 0 ? progress / length : 1));
+        } else if (holdHeading) {
+            targetHeading = path.getHeadingAt(progress);
+        }
+
+        // 4. Speed from the profile if there is one, else from the distance to the lookahead point
+        double driveSpeed;
+        if (profile != null) {
+            profile.sample(elapsed, setpoint);
+            driveSpeed = Math.signum(setpoint[1]) * RobotConfig.drive_kS + RobotConfig.drive_kV * setpoint[1] / 100
+                    + RobotConfig.drive_kA * setpoint[2] / 100 + RobotConfig.path_Kp * (setpoint[0] - progress);
+            driveSpeed = Math.max(RobotConfig.MIN_POWER, Math.min(1.0, driveSpeed));
+        } else {
+            double distance = Math.hypot(lookahead[0] - currentPose.x, lookahead[1] - currentPose.y);
+            driveSpeed = Math.max(RobotConfig.MIN_POWER, Math.min(0.7, distance * RobotConfig.Kp));
+        }
+        t = profiler.lap(LoopProfiler.CONTROL, t);
+        driveToPoint(lookahead[0], lookahead[1], targetHeading, driveSpeed);
+        profiler.lap(LoopProfiler.OUTPUT, t);
+        return false;
+    }
+
+    /** Stop the robot and cancel the marker actions still running; they don't outlive their path. */
+    void stop() {
+        robot.drive(0, 0, 0);
+        for (MarkerCommand command : markerCommands) {
+            CommandScheduler.getInstance().cancel(command);
+        }
+        queue.skipRemaining();
+    }
+
+    private void fireMarkers(double progress, double elapsed) {
+        for (PathMarker marker = queue.next(progress, elapsed, currentPose.x, currentPose.y); marker != null;
+             marker = queue.next(progress, elapsed, currentPose.x, currentPose.y)) {
+            MarkerCommand command = new MarkerCommand(marker);
+            markerCommands.add(command);
+            CommandScheduler.getInstance().schedule(command);
+        }
+    }
+
+    /**
+     * @param targetHeading field heading to hold, radians, or NaN to turn toward the target
+     * @param driveSpeed translation power, 0 to 1
+     */
+    private void driveToPoint(double targetX, double targetY, double targetHeading, double driveSpeed) {
+        double deltaX = targetX - currentPose.x;
+        double deltaY = targetY - currentPose.y;
+
+        double turnPower;
+        if (Double.isNaN(targetHeading)) {
+            // Calculate heading to face the target
+            double absoluteAngleToTarget = Math.atan2(deltaY, deltaX);
+            double angleError = AngleUnit.normalizeRadians(absoluteAngleToTarget - currentPose.heading);
+            turnPower = angleError * RobotConfig.STEER_P;
+        } else {
+            // Hold the path's heading; the turn rate term damps overshoot
+            double headingError = AngleUnit.normalizeRadians(targetHeading - currentPose.heading);
+            turnPower = RobotConfig.heading_Kp * headingError - RobotConfig.heading_Kd * localizer.getAngularVelocity();
+            turnPower = Math.max(-RobotConfig.headingMaxPower, Math.min(RobotConfig.headingMaxPower, turnPower));
+        }
+
+        // Normalize deltaX and deltaY to provide direction, then scale by driveSpeed
+        double magnitude = Math.hypot(deltaX, deltaY);
+        double forward = (deltaX / (magnitude + 1e-6)) * driveSpeed;
+        double strafe = (deltaY / (magnitude + 1e-6)) * driveSpeed;
+
+        // Robot class handles IMU rotation for Field Relative movement
+        robot.driveFieldRelative(forward, strafe, turnPower);
+    }
+
+    // Integrated every tick in robot.update(); copied out once per loop
+    private MutablePose updateRobotPose() {
+        return localizer.getPose(currentPose);
+    }
+
+    // Near the end point isn't enough: a path that loops back ends where it starts
+    private boolean isPathFinished(double progress) {
+        return progress >= length - FINISH_THRESHOLD_CM
+                && currentPose.distanceTo(path.getEndX(), path.getEndY()) < FINISH_THRESHOLD_CM;
+    }
+}
@@ -1,11 +1,108 @@
 package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
 
+/**
+ * An action to run part way along a path. It can fire at a distance along the path
+ * (a percentage of its length, or centimeters), at a time since the path started,
+ * or when the robot enters a circle on the field.
+ */
 public class PathMarker {
-    double percentage;
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        SKIPPED     // the path ended before the marker was reached
+    }
+
+    public enum Trigger {
+        PERCENT,    // percentage of the path's arc length
+        DISTANCE,   // centimeters of arc length from the start
+        TIME,       // seconds since the path started
+        REGION      // robot within a radius of a field point
+    }
+
+    final Trigger trigger;
+    final double value;             // percentage, cm or seconds; x for regions
+    final double regionY;
+    final double regionRadius;
     RobotAction action;
+    AsyncRobotAction asyncAction;
 
+    Status status = Status.PENDING;
+    double triggerAt;               // resolved distance or time, set when the path starts
+    long startNanos;
+    long endNanos;
+
+    /**
+     * Fire at a percentage of the way along the path, measured by arc length.
+     */
     public PathMarker(double percentage, RobotAction action) {
-        this.percentage = percentage;
+        this(Trigger.PERCENT, percentage, 0, 0, action, null);
+    }
+
+    private PathMarker(Trigger trigger, double value, double regionY, double regionRadius,
+                       RobotAction action, AsyncRobotAction asyncAction) {
+        this.trigger = trigger;
+        this.value = value;
+        this.regionY = regionY;
+        this.regionRadius = regionRadius;
         this.action = action;
+        this.asyncAction = asyncAction;
+    }
+
+    /**
+     * A marker whose action keeps running alongside the path. It is cancelled if the
+     * path ends first.
+     */
+    public static PathMarker async(double percentage, AsyncRobotAction action) {
+        return new PathMarker(Trigger.PERCENT, percentage, 0, 0, null, action);
+    }
+
+    /** Fire once the robot has covered this many centimeters of the path. */
+    public static PathMarker atDistance(double cm, RobotAction action) {
+        return new PathMarker(Trigger.DISTANCE, cm, 0, 0, action, null);
+    }
+
+    public static PathMarker asyncAtDistance(double cm, AsyncRobotAction action) {
+        return new PathMarker(Trigger.DISTANCE, cm, 0, 0, null, action);
+    }
+
+    /** Fire this many seconds after the path starts, wherever the robot is. */
+    public static PathMarker atTime(double seconds, RobotAction action) {
+        return new PathMarker(Trigger.TIME, seconds, 0, 0, action, null);
+    }
+
+    public static PathMarker asyncAtTime(double seconds, AsyncRobotAction action) {
+        return new PathMarker(Trigger.TIME, seconds, 0, 0, null, action);
+    }
+
+    /** Fire the first time the robot comes within {@code radius} cm of (x, y). */
+    public static PathMarker inRegion(double x, double y, double radius, RobotAction action) {
+        return new PathMarker(Trigger.REGION, x, y, radius, action, null);
+    }
+
+    public static PathMarker asyncInRegion(double x, double y, double radius, AsyncRobotAction action) {
+        return new PathMarker(Trigger.REGION, x, y, radius, null, action);
+    }
+
+    public Trigger getTrigger() {
+        return trigger;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /** How long the action ran (or has been running), in milliseconds. */
+    public double getRunMs() {
+        if (status == Status.PENDING || status == Status.SKIPPED) return 0;
+        long end = status == Status.RUNNING ? System.nanoTime() : endNanos;
+        return (end - startNanos) / 1e6;
+    }
+
+    boolean isInRegion(double x, double y) {
+        double dx = x - value;
+        double dy = y - regionY;
+        return dx * dx + dy * dy <= regionRadius * regionRadius;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package org.firstinspires.ftc.teamcode.Crawler.Hardware;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+
+import java.util.List;
+
+/**
+ * Reads all odometry encoders in a single bulk transaction per cycle.
+ * <p>
+ * The hubs are switched to {@link LynxModule.BulkCachingMode#MANUAL}, so the cache is only
+ * refreshed when {@link #update()} (or {@link #refresh()}) is called. Anything else that polls
+ * motor state in a loop (isBusy, getCurrentPosition) has to go through one of those two.
+ */
+public class BulkReader {
+    private final LynxModule[] hubs; // an array so the per-cycle loop doesn't allocate an iterator
+    private final DcMotor leftOdo, rightOdo, centerOdo;
+    private final ImuReader imuReader;
+    private final boolean manual;
+
+    // Refilled every cycle instead of replaced, so reading the hardware makes no garbage
+    private final HardwareSnapshot latest = new HardwareSnapshot();
+    private final HeadingSample heading = new HeadingSample();
+    private long lastUpdateNanos = 0;
+    private double loopHz = 0;
+
+    public BulkReader(List<LynxModule> hubs, DcMotor leftOdo, DcMotor rightOdo, DcMotor centerOdo, ImuReader imuReader) {
+        this.hubs = hubs.toArray(new LynxModule[0]);
+        this.leftOdo = leftOdo;
+        this.rightOdo = rightOdo;
+        this.centerOdo = centerOdo;
+        this.imuReader = imuReader;
+        this.manual = RobotConfig.useBulkReads;
+        latest.timestampNanos = System.nanoTime();
+
+        LynxModule.BulkCachingMode mode = manual ? LynxModule.BulkCachingMode.MANUAL : LynxModule.BulkCachingMode.OFF;
+        for (LynxModule hub : this.hubs) {
+            hub.setBulkCachingMode(mode);
+        }
+    }
+
+    /**
+     * Start a new cycle: clear the bulk cache, read everything once and hand back the snapshot.
+     * It's the same object every cycle, refilled in place.
+     */
+    public HardwareSnapshot update() {
+        long now = System.nanoTime();
+        refresh();
+
+        // With the cache cleared, the first encoder read pulls the whole hub in one transaction
+        int left = leftOdo.getCurrentPosition();
+        int right = rightOdo.getCurrentPosition();
+        int center = centerOdo.getCurrentPosition();
+        // Heading comes from the background reader, so it never stalls this thread on I2C
+        imuReader.getLatest(heading);
+
+        latest.set(left, right, center, heading.yawDegrees, heading.yawRateDegPerSec, now);
+
+        if (lastUpdateNanos != 0) {
+            double hz = 1e9 / (now - lastUpdateNanos);
+            // Light smoothing so the telemetry number is readable
+            loopHz = (loopHz == 0) ? hz : loopHz * 0.9 + hz * 0.1;
+        }
+        lastUpdateNanos = now;
+        return latest;
+    }
+
+    /**
+     * Drop the cached bulk data without building a snapshot.
+     * Needed by code that waits on motor state between control cycles.
+     */
+    public void refresh() {
+        if (!manual) return;
+        for (LynxModule hub : hubs) {
+            hub.clearBulkCache();
+        }
+    }
+
+    /** The snapshot from the last {@link #update()}. */
+    public HardwareSnapshot getLatest() {
+        return latest;
+    }
+
+    /** Smoothed rate at which {@link #update()} is being called. */
+    public double getLoopHz() {
+        return loopHz;
+    }
+
+    /** Forget the last loop timing, e.g. before starting a new move. */
+    public void resetLoopTiming() {
+        lastUpdateNanos = 0;
+        loopHz = 0;
+    }
+
+    public boolean isManual() {
+        return manual;
+    }
+}
@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.Crawler.Hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+/**
+ * Wraps a motor and drops setPower calls that would not change anything.
+ * <p>
+ * A write goes out if the new power differs from the last one sent by at least {@code epsilon},
+ * or if it is an exact 0 (stopping is always sent). Every skipped write is a hub command saved.
+ */
+public class CachedMotor {
+    private final DcMotor motor;
+    private final double epsilon;
+
+    private double lastPower = Double.NaN; // NaN forces the first write through
+    private long sent = 0;
+    private long skipped = 0;
+
+    public CachedMotor(DcMotor motor, double epsilon) {
+        this.motor = motor;
+        this.epsilon = epsilon;
+    }
+
+    /** @return true if a command was actually sent to the hub */
+    public boolean setPower(double power) {
+        boolean stopping = power == 0 && lastPower != 0;
+        if (!stopping && Math.abs(power - lastPower) < epsilon) {
+            skipped++;
+            return false;
+        }
+        motor.setPower(power);
+        lastPower = power;
+        sent++;
+        return true;
+    }
+
+    /** Forget the cached value, e.g. after something else wrote to the motor directly. */
+    public void invalidate() {
+        lastPower = Double.NaN;
+    }
+
+    public double getLastPower() {
+        return lastPower;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public DcMotor getMotor() {
+        return motor;
+    }
+}
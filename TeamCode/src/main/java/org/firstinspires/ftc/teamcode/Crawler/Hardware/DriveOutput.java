@@ -0,0 +1,87 @@
+package org.firstinspires.ftc.teamcode.Crawler.Hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+/**
+ * Output stage for the four drive motors.
+ * <p>
+ * Control code stages wheel powers with {@link #set} as often as it likes, and {@link #flush()}
+ * sends them once per cycle through {@link CachedMotor}s, so redundant writes never reach the hub.
+ * Powers are sent exactly as given: motor directions are whatever the motors are configured with.
+ */
+public class DriveOutput {
+    private final CachedMotor frontLeft, frontRight, backLeft, backRight;
+
+    private double fl, fr, bl, br;
+    private boolean dirty = false;
+
+    private long windowStartNanos = System.nanoTime();
+    private long skippedAtWindowStart = 0;
+    private double savedPerSecond = 0;
+
+    public DriveOutput(DcMotor frontLeft, DcMotor frontRight, DcMotor backLeft, DcMotor backRight, double epsilon) {
+        this.frontLeft = new CachedMotor(frontLeft, epsilon);
+        this.frontRight = new CachedMotor(frontRight, epsilon);
+        this.backLeft = new CachedMotor(backLeft, epsilon);
+        this.backRight = new CachedMotor(backRight, epsilon);
+    }
+
+    /** Stage wheel powers for the next {@link #flush()}. Later calls in the same cycle win. */
+    public void set(double frontLeftPower, double frontRightPower, double backLeftPower, double backRightPower) {
+        fl = frontLeftPower;
+        fr = frontRightPower;
+        bl = backLeftPower;
+        br = backRightPower;
+        dirty = true;
+    }
+
+    /** Send whatever was staged since the last flush. */
+    public void flush() {
+        if (dirty) {
+            frontLeft.setPower(fl);
+            frontRight.setPower(fr);
+            backLeft.setPower(bl);
+            backRight.setPower(br);
+            dirty = false;
+        }
+        updateStats();
+    }
+
+    /** Stage and send in one go, for code that isn't running inside a control cycle. */
+    public void write(double frontLeftPower, double frontRightPower, double backLeftPower, double backRightPower) {
+        set(frontLeftPower, frontRightPower, backLeftPower, backRightPower);
+        flush();
+    }
+
+    /** Force the next flush to send all four wheels. */
+    public void invalidate() {
+        frontLeft.invalidate();
+        frontRight.invalidate();
+        backLeft.invalidate();
+        backRight.invalidate();
+    }
+
+    private void updateStats() {
+        long now = System.nanoTime();
+        long elapsed = now - windowStartNanos;
+        if (elapsed < 1_000_000_000L) return;
+
+        long skipped = getSkipped();
+        savedPerSecond = (skipped - skippedAtWindowStart) * 1e9 / elapsed;
+        skippedAtWindowStart = skipped;
+        windowStartNanos = now;
+    }
+
+    /** Hub commands saved per second, measured over the last full second. */
+    public double getSavedPerSecond() {
+        return savedPerSecond;
+    }
+
+    public long getSent() {
+        return frontLeft.getSent() + frontRight.getSent() + backLeft.getSent() + backRight.getSent();
+    }
+
+    public long getSkipped() {
+        return frontLeft.getSkipped() + frontRight.getSkipped() + backLeft.getSkipped() + backRight.getSkipped();
+    }
+}
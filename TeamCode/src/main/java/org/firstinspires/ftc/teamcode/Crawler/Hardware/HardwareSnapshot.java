@@ -0,0 +1,32 @@
+package org.firstinspires.ftc.teamcode.Crawler.Hardware;
+
+/**
+ * Every sensor value a control loop needs for one cycle.
+ * Filled in once per cycle by {@link BulkReader} so the controllers never touch the hub directly.
+ * <p>
+ * There is one per reader, refilled in place by every {@link BulkReader#update()} so the loop
+ * makes no garbage. Read it during the cycle; copy out anything that has to outlive it.
+ */
+public final class HardwareSnapshot {
+    public int leftTicks;
+    public int rightTicks;
+    public int centerTicks;
+    public double yawDegrees;
+    public double yawRateDegPerSec;
+    public long timestampNanos;
+
+    void set(int leftTicks, int rightTicks, int centerTicks,
+             double yawDegrees, double yawRateDegPerSec, long timestampNanos) {
+        this.leftTicks = leftTicks;
+        this.rightTicks = rightTicks;
+        this.centerTicks = centerTicks;
+        this.yawDegrees = yawDegrees;
+        this.yawRateDegPerSec = yawRateDegPerSec;
+        this.timestampNanos = timestampNanos;
+    }
+
+    /** Average of the two parallel odometry wheels, in ticks. */
+    public double forwardTicks() {
+        return (leftTicks + rightTicks) / 2.0;
+    }
+}
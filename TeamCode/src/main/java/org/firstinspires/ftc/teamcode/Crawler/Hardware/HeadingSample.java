@@ -0,0 +1,22 @@
+package org.firstinspires.ftc.teamcode.Crawler.Hardware;
+
+/**
+ * One IMU reading. {@link ImuReader} copies its newest reading into a sample the caller owns,
+ * so a control loop keeps one of these and reuses it every cycle.
+ */
+public final class HeadingSample {
+    public double yawDegrees;
+    public double yawRateDegPerSec;
+    public long timestampNanos;
+
+    HeadingSample set(double yawDegrees, double yawRateDegPerSec, long timestampNanos) {
+        this.yawDegrees = yawDegrees;
+        this.yawRateDegPerSec = yawRateDegPerSec;
+        this.timestampNanos = timestampNanos;
+        return this;
+    }
+
+    public double yawRadians() {
+        return Math.toRadians(yawDegrees);
+    }
+}
@@ -0,0 +1,138 @@
+package org.firstinspires.ftc.teamcode.Crawler.Hardware;
+
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples the IMU as fast as the I2C bus allows on its own thread.
+ * <p>
+ * Control loops call {@link #getLatest(HeadingSample)}, which never blocks and never allocates:
+ * the newest reading sits in plain fields behind a sequence lock, like {@link
+ * org.firstinspires.ftc.teamcode.Crawler.Localization.PoseHistory}, and is copied into the
+ * caller's sample. Check {@link #isStale()} if it matters whether the reader is keeping up.
+ */
+public class ImuReader implements Runnable {
+    private final IMU imu;
+
+    // Newest reading. Odd sequence while it's being written; readers retry until it's even and unchanged.
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile double yawDegrees = 0;
+    private volatile double yawRateDegPerSec = 0;
+    private volatile long timestampNanos = System.nanoTime();
+
+    private volatile boolean running = false;
+    private volatile long resetNanos = 0;
+    private volatile long samples = 0;
+    private volatile long errors = 0;
+    private Thread thread;
+
+    public ImuReader(IMU imu) {
+        this.imu = imu;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "ImuReader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stop the reader thread and wait briefly for it to exit. Safe to call more than once. */
+    public synchronized void stop() {
+        running = false;
+        if (thread == null) return;
+        thread.interrupt();
+        try {
+            thread.join(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            long readStart = System.nanoTime();
+            try {
+                double yaw = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
+                double yawRate = imu.getRobotAngularVelocity(AngleUnit.DEGREES).zRotationRate;
+
+                // A read that started before resetYaw() would publish the pre-reset heading
+                if (readStart < resetNanos) continue;
+
+                publish(yaw, yawRate, System.nanoTime());
+                samples++;
+            } catch (RuntimeException e) {
+                errors++;
+                RobotLog.ww("ImuReader", "IMU read failed: %s", e.getMessage());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Zero the yaw. Samples already in flight are discarded. */
+    public void resetYaw() {
+        imu.resetYaw();
+        resetNanos = System.nanoTime();
+        publish(0, yawRateDegPerSec, System.nanoTime());
+    }
+
+    // Both the reader thread and resetYaw() write; the lock only keeps them from interleaving
+    private synchronized void publish(double yaw, double yawRate, long nanos) {
+        sequence.incrementAndGet();
+        yawDegrees = yaw;
+        yawRateDegPerSec = yawRate;
+        timestampNanos = nanos;
+        sequence.incrementAndGet();
+    }
+
+    /**
+     * Copy the newest sample into {@code out}. Never blocks.
+     * @return {@code out}
+     */
+    public HeadingSample getLatest(HeadingSample out) {
+        while (true) {
+            long seq = sequence.get();
+            if ((seq & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            out.set(yawDegrees, yawRateDegPerSec, timestampNanos);
+            if (sequence.get() == seq) return out;
+        }
+    }
+
+    /** Newest yaw on its own, in radians. */
+    public double getYawRadians() {
+        return Math.toRadians(yawDegrees);
+    }
+
+    /** Age of the newest sample in milliseconds. */
+    public double getAgeMs() {
+        return (System.nanoTime() - timestampNanos) / 1e6;
+    }
+
+    /** True if the reader has not published anything for {@link RobotConfig#imuStaleMs}. */
+    public boolean isStale() {
+        return getAgeMs() > RobotConfig.imuStaleMs;
+    }
+
+    public long getSampleCount() {
+        return samples;
+    }
+
+    public long getErrorCount() {
+        return errors;
+    }
+}
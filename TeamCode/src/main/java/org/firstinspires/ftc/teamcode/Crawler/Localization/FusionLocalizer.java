@@ -0,0 +1,285 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.HeadingSample;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.ImuReader;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * {@link Localizer} that fuses dead-wheel odometry, IMU yaw and AprilTag robot poses with a
+ * {@link PoseEstimator}.
+ * <p>
+ * Each tick: predict from the odometry step, correct heading with the IMU if it has a new
+ * sample, then fold in any tag poses handed over since the last tick. If the odometry's heading
+ * already is the IMU yaw (three wheels without a track width), the step carries it and the IMU
+ * isn't fused a second time. Tag poses are compared
+ * with the estimate at the frame's capture time (from a {@link PoseHistory}) and dropped if
+ * they are statistically too far off.
+ * <p>
+ * Every input can be written to a CSV log; {@link FusionReplay} feeds such a log back through
+ * the same methods, so the filter can be tuned offline. All calls must come from the control thread.
+ */
+public class FusionLocalizer implements Localizer {
+    private static final int MAX_PENDING_TAGS = 8;
+    // Chi-square, 99%: 1 DOF for IMU heading
+    private static final double IMU_GATE = 6.63;
+
+    private final Localizer odometry;
+    private final ImuReader imuReader;
+    private final boolean odometryHeadingFromImu;
+    private final PoseEstimator ekf = new PoseEstimator();
+    private final PoseHistory history = new PoseHistory(64);
+    private final VelocityTracker velocity = new VelocityTracker();
+    private final double[] prior = new double[3];
+    private final HeadingSample imuSample = new HeadingSample();
+    private PrintWriter log;
+
+    private boolean odometryStarted = false;
+    private double lastOdoX, lastOdoY, lastOdoHeading;
+    private long timestampNanos;
+
+    private long lastImuNanos = 0;
+    private double lastImuYaw = 0;
+    private double imuOffset = 0;
+    private boolean imuOffsetKnown = false;
+
+    // False only while waiting for the first tag to give the start pose (fusionInitFromTag);
+    // otherwise the origin, or whatever setPose gives, is the start pose and tags correct it
+    private boolean poseKnown;
+
+    private final long[] tagNanos = new long[MAX_PENDING_TAGS];
+    private final double[] tagX = new double[MAX_PENDING_TAGS];
+    private final double[] tagY = new double[MAX_PENDING_TAGS];
+    private final double[] tagHeading = new double[MAX_PENDING_TAGS];
+    private int pendingTags = 0;
+    private long lastFusedFrameNanos = 0;
+
+    private int tagsAccepted = 0, tagsRejected = 0;
+
+    /**
+     * @param odometry the wheel localizer to predict from; it is updated by this one
+     * @param logFile where to record inputs for replay, or null
+     */
+    public FusionLocalizer(Localizer odometry, ImuReader imuReader, File logFile) {
+        this.odometry = odometry;
+        this.imuReader = imuReader;
+        odometryHeadingFromImu = odometry instanceof ThreeWheelLocalizer
+                && ((ThreeWheelLocalizer) odometry).isHeadingFromImu();
+        poseKnown = !RobotConfig.fusionInitFromTag;
+        ekf.reset(0, 0, 0, RobotConfig.fusionStartXyStd * RobotConfig.fusionStartXyStd,
+                RobotConfig.fusionStartHeadingStd * RobotConfig.fusionStartHeadingStd);
+        if (logFile != null) {
+            try {
+                log = new PrintWriter(new BufferedWriter(new FileWriter(logFile)));
+            } catch (IOException e) {
+                RobotLog.ee("FusionLocalizer", e, "Could not open %s, not logging", logFile);
+            }
+        }
+    }
+
+    /** Without sensors, for replaying a log. */
+    FusionLocalizer() {
+        this(null, null, null);
+    }
+
+    @Override
+    public void update() {
+        // 1. Predict from the wheels
+        odometry.update();
+        double ox = odometry.getX(), oy = odometry.getY(), oh = odometry.getHeading();
+        if (odometryStarted) {
+            // Odometry step, turned back into the robot frame it happened in
+            double dx = ox - lastOdoX;
+            double dy = oy - lastOdoY;
+            double cos = Math.cos(lastOdoHeading);
+            double sin = Math.sin(lastOdoHeading);
+            predict(odometry.getTimestampNanos(),
+                    dx * cos + dy * sin,
+                    -dx * sin + dy * cos,
+                    PoseEstimator.wrap(oh - lastOdoHeading));
+        }
+        odometryStarted = true;
+        lastOdoX = ox;
+        lastOdoY = oy;
+        lastOdoHeading = oh;
+
+        // 2. IMU heading, if the reader has something new and the odometry step didn't already use it
+        if (!odometryHeadingFromImu) {
+            imuReader.getLatest(imuSample);
+            if (imuSample.timestampNanos != lastImuNanos) {
+                fuseImu(imuSample.timestampNanos, imuSample.yawRadians());
+            }
+        }
+
+        // 3. Tag poses handed over since the last tick
+        for (int i = 0; i < pendingTags; i++) {
+            fuseTag(tagNanos[i], tagX[i], tagY[i], tagHeading[i]);
+            lastFusedFrameNanos = Math.max(lastFusedFrameNanos, tagNanos[i]);
+        }
+        pendingTags = 0;
+    }
+
+    /** Odometry step in the robot frame. */
+    void predict(long nanos, double dForward, double dStrafe, double dHeading) {
+        logLine('O', nanos, dForward, dStrafe, dHeading);
+        ekf.predict(dForward, dStrafe, dHeading,
+                RobotConfig.fusionOdoXyVariancePerCm, RobotConfig.fusionOdoHeadingVariancePerRad);
+        timestampNanos = nanos;
+        history.add(nanos, ekf.getX(), ekf.getY(), ekf.getHeading());
+        velocity.update(ekf.getX(), ekf.getY(), ekf.getHeading(), nanos);
+    }
+
+    /** Raw IMU yaw; the offset to field heading is worked out here. */
+    void fuseImu(long nanos, double yaw) {
+        logLine('I', nanos, yaw, 0, 0);
+        lastImuNanos = nanos;
+        lastImuYaw = yaw;
+        if (!imuOffsetKnown) {
+            imuOffset = PoseEstimator.wrap(ekf.getHeading() - yaw);
+            imuOffsetKnown = true;
+            return;
+        }
+        double std = RobotConfig.fusionImuHeadingStd;
+        ekf.correctHeading(PoseEstimator.wrap(yaw + imuOffset), std * std, IMU_GATE);
+    }
+
+    /** A field pose from a camera frame captured at {@code nanos}. */
+    boolean fuseTag(long nanos, double x, double y, double heading) {
+        logLine('T', nanos, x, y, heading);
+        if (!poseKnown) {
+            setPose(x, y, heading);
+            return true;
+        }
+
+        // Compare with where we thought we were when the frame was taken
+        if (!history.getAt(nanos, prior)) {
+            prior[0] = ekf.getX();
+            prior[1] = ekf.getY();
+            prior[2] = ekf.getHeading();
+        }
+        double xyStd = RobotConfig.fusionTagXyStd;
+        double headingStd = RobotConfig.fusionTagHeadingStd;
+        boolean accepted = ekf.correctPose(x, y, heading, prior[0], prior[1], prior[2],
+                xyStd * xyStd, headingStd * headingStd, RobotConfig.fusionTagGate);
+        if (!accepted) {
+            tagsRejected++;
+            return false;
+        }
+        tagsAccepted++;
+
+        // Move the history along with the estimate so the next frame compares against it
+        history.correct(history.getNewestTime(), ekf.getX(), ekf.getY(), ekf.getHeading(), prior);
+        return true;
+    }
+
+    /**
+     * Queue an AprilTag robot pose for the next {@link #update()}. Frames older than the last
+     * fused one are ignored, since the processor hands out the same frame until a new one arrives.
+     */
+    @Override
+    public boolean addVisionMeasurement(long captureNanos, double x, double y, double heading) {
+        if (captureNanos <= lastFusedFrameNanos || pendingTags == MAX_PENDING_TAGS) return false;
+        tagNanos[pendingTags] = captureNanos;
+        tagX[pendingTags] = x;
+        tagY[pendingTags] = y;
+        tagHeading[pendingTags] = heading;
+        pendingTags++;
+        return true;
+    }
+
+    @Override
+    public void setPose(double x, double y, double heading) {
+        logLine('P', timestampNanos, x, y, heading);
+        double xyStd = RobotConfig.fusionStartXyStd;
+        double headingStd = RobotConfig.fusionStartHeadingStd;
+        ekf.reset(x, y, heading, xyStd * xyStd, headingStd * headingStd);
+        if (lastImuNanos != 0) {
+            imuOffset = PoseEstimator.wrap(heading - lastImuYaw);
+            imuOffsetKnown = true;
+        }
+        poseKnown = true;
+        history.clear();
+        velocity.reset();
+    }
+
+    @Override
+    public void resetReference() {
+        if (odometry != null) odometry.resetReference();
+        odometryStarted = false;
+    }
+
+    @Override
+    public void close() {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+
+    @Override
+    public double getX() {
+        return ekf.getX();
+    }
+
+    @Override
+    public double getY() {
+        return ekf.getY();
+    }
+
+    @Override
+    public double getHeading() {
+        return ekf.getHeading();
+    }
+
+    @Override
+    public double getVelocityX() {
+        return velocity.getVelocityX();
+    }
+
+    @Override
+    public double getVelocityY() {
+        return velocity.getVelocityY();
+    }
+
+    @Override
+    public double getAngularVelocity() {
+        return velocity.getAngularVelocity();
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    public PoseEstimator getEstimator() {
+        return ekf;
+    }
+
+    public int getTagsAccepted() {
+        return tagsAccepted;
+    }
+
+    public int getTagsRejected() {
+        return tagsRejected;
+    }
+
+    private void logLine(char kind, long nanos, double a, double b, double c) {
+        if (log == null) return;
+        log.print(kind);
+        log.print(',');
+        log.print(nanos);
+        log.print(',');
+        log.print(a);
+        log.print(',');
+        log.print(b);
+        log.print(',');
+        log.println(c);
+    }
+}
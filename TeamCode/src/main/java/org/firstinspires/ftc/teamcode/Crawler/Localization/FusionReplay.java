@@ -0,0 +1,58 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Runs a {@link FusionLocalizer} log (turn on {@code RobotConfig.logFusion}, pull
+ * {@code fusion_*.csv} off the Control Hub) back through the filter, so noise settings can be
+ * tried without the robot. Change the {@code RobotConfig.fusion*} fields before calling.
+ * <p>
+ * Output is one line per odometry step: {@code nanos,x,y,heading}.
+ */
+public final class FusionReplay {
+    private FusionReplay() {}
+
+    public static FusionLocalizer replay(BufferedReader in, PrintWriter out) throws IOException {
+        FusionLocalizer fusion = new FusionLocalizer();
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] f = line.split(",");
+            if (f.length < 5) continue;
+            long nanos = Long.parseLong(f[1]);
+            double a = Double.parseDouble(f[2]);
+            double b = Double.parseDouble(f[3]);
+            double c = Double.parseDouble(f[4]);
+            switch (f[0].charAt(0)) {
+                case 'O':
+                    fusion.predict(nanos, a, b, c);
+                    if (out != null) {
+                        out.println(nanos + "," + fusion.getX() + "," + fusion.getY() + "," + fusion.getHeading());
+                    }
+                    break;
+                case 'I':
+                    fusion.fuseImu(nanos, a);
+                    break;
+                case 'T':
+                    fusion.fuseTag(nanos, a, b, c);
+                    break;
+                case 'P':
+                    fusion.setPose(a, b, c);
+                    break;
+            }
+        }
+        return fusion;
+    }
+
+    /** {@code FusionReplay <log.csv>}, estimates go to stdout. */
+    public static void main(String[] args) throws IOException {
+        try (BufferedReader in = new BufferedReader(new FileReader(args[0]))) {
+            PrintWriter out = new PrintWriter(System.out);
+            FusionLocalizer fusion = replay(in, out);
+            out.flush();
+            System.err.println("tags accepted " + fusion.getTagsAccepted() + ", rejected " + fusion.getTagsRejected());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import com.arcrobotics.ftclib.geometry.Pose2d;
+import com.arcrobotics.ftclib.geometry.Rotation2d;
+
+/**
+ * A source of field position. {@link org.firstinspires.ftc.teamcode.Crawler.Robot} builds the one
+ * picked in {@link org.firstinspires.ftc.teamcode.Crawler.RobotConfig#localizer} and ticks it in
+ * {@code update()}, so path code never needs to know which one it is.
+ * <p>
+ * Units are centimeters and radians, counter-clockwise positive. Velocities are in the field frame.
+ */
+public interface Localizer {
+    /** Read the latest sensor values and move the estimate. Called once per control tick, after the bulk read. */
+    void update();
+
+    double getX();
+
+    double getY();
+
+    double getHeading();
+
+    /** cm/s */
+    double getVelocityX();
+
+    /** cm/s */
+    double getVelocityY();
+
+    /** rad/s */
+    double getAngularVelocity();
+
+    /** {@link System#nanoTime()} of the sensor data behind the current estimate. */
+    long getTimestampNanos();
+
+    void setPose(double x, double y, double heading);
+
+    /** The drive encoders were just zeroed. Backends that track encoder deltas re-anchor here. */
+    default void resetReference() {}
+
+    /**
+     * Hand over a field pose measured by the camera. Backends that can't fuse it ignore it.
+     * @param captureNanos {@link System#nanoTime()} when the frame was captured
+     * @return true if it was taken
+     */
+    default boolean addVisionMeasurement(long captureNanos, double x, double y, double heading) {
+        return false;
+    }
+
+    /** Release files or threads. Called from {@code Robot.close()}. */
+    default void close() {}
+
+    /** Copy the current pose into {@code out} without allocating. */
+    default MutablePose getPose(MutablePose out) {
+        return out.set(getX(), getY(), getHeading());
+    }
+
+    /** Convenience copy for code that works in FTCLib types. Allocates. */
+    default Pose2d getPose() {
+        return new Pose2d(getX(), getY(), new Rotation2d(getHeading()));
+    }
+}
@@ -0,0 +1,12 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+/**
+ * Which {@link Localizer} the robot uses. Set in {@link org.firstinspires.ftc.teamcode.Crawler.RobotConfig#localizer}.
+ */
+public enum LocalizerType {
+    THREE_WHEEL,    // our own pose-exponential dead-wheel odometry
+    FTCLIB_ODOMETRY, // FTCLib's HolonomicOdometry on the same wheels
+    FUSION,         // three-wheel odometry + IMU + AprilTags through a Kalman filter
+    OCTOQUAD,       // the OctoQuad's onboard localizer, over I2C
+    OTOS            // SparkFun optical tracking sensor
+}
@@ -0,0 +1,34 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import com.arcrobotics.ftclib.geometry.Pose2d;
+import com.arcrobotics.ftclib.geometry.Rotation2d;
+
+/**
+ * A pose that gets overwritten in place, for loops that must not allocate.
+ * FTCLib's {@link Pose2d} is immutable, so every update of one is a new object.
+ */
+public final class MutablePose {
+    public double x;
+    public double y;
+    public double heading;
+
+    public MutablePose set(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        return this;
+    }
+
+    public MutablePose set(MutablePose other) {
+        return set(other.x, other.y, other.heading);
+    }
+
+    public double distanceTo(double x, double y) {
+        return Math.hypot(x - this.x, y - this.y);
+    }
+
+    /** Allocates; for handing off to FTCLib code. */
+    public Pose2d toPose2d() {
+        return new Pose2d(x, y, new Rotation2d(heading));
+    }
+}
@@ -0,0 +1,154 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+
+/**
+ * {@link Localizer} backed by the OctoQuad's onboard absolute localizer.
+ * <p>
+ * The OctoQuad reads the two dead wheels and its own IMU at its own rate and integrates
+ * the pose itself, so our loop only does one I2C block read per cycle for pose and
+ * velocity, and the odometry stays off the hub bus the drive motors use. Blocks that fail
+ * the CRC are thrown away and the last good pose is kept.
+ * <p>
+ * The device is reached through {@link Device}, so anything that can fill a
+ * {@link OctoQuad.LocalizerDataBlock} can stand in for it off the robot.
+ */
+public class OctoQuadLocalizer implements Localizer {
+    /** The parts of the OctoQuad this localizer uses. */
+    public interface Device {
+        void readLocalizerData(OctoQuad.LocalizerDataBlock block);
+
+        void setLocalizerPose(int xMm, int yMm, float headingRad);
+    }
+
+    private final Device device;
+    private final OctoQuad.LocalizerDataBlock block = new OctoQuad.LocalizerDataBlock();
+
+    private double x, y, heading;
+    private double vx, vy, omega;
+    private long timestampNanos;
+    private OctoQuad.LocalizerStatus status = OctoQuad.LocalizerStatus.NOT_INITIALIZED;
+    private int badPackets = 0;
+    private int totalPackets = 0;
+
+    public OctoQuadLocalizer(Device device) {
+        this.device = device;
+    }
+
+    /**
+     * Configure a real OctoQuad from {@link RobotConfig} and start its IMU calibration.
+     * Poses read as not ready until the calibration finishes (a couple of seconds, keep the robot still).
+     */
+    public static OctoQuadLocalizer create(OctoQuad octoQuad) {
+        octoQuad.setSingleEncoderDirection(RobotConfig.octoQuadPortX,
+                RobotConfig.octoQuadReverseX ? OctoQuad.EncoderDirection.REVERSE : OctoQuad.EncoderDirection.FORWARD);
+        octoQuad.setSingleEncoderDirection(RobotConfig.octoQuadPortY,
+                RobotConfig.octoQuadReverseY ? OctoQuad.EncoderDirection.REVERSE : OctoQuad.EncoderDirection.FORWARD);
+        octoQuad.setLocalizerPortX(RobotConfig.octoQuadPortX);
+        octoQuad.setLocalizerPortY(RobotConfig.octoQuadPortY);
+        octoQuad.setLocalizerCountsPerMM_X((float) RobotConfig.octoQuadTicksPerMmX);
+        octoQuad.setLocalizerCountsPerMM_Y((float) RobotConfig.octoQuadTicksPerMmY);
+        octoQuad.setLocalizerTcpOffsetMM_X((float) RobotConfig.octoQuadTcpOffsetXMm);
+        octoQuad.setLocalizerTcpOffsetMM_Y((float) RobotConfig.octoQuadTcpOffsetYMm);
+        octoQuad.setLocalizerImuHeadingScalar((float) RobotConfig.octoQuadImuScalar);
+        octoQuad.setLocalizerVelocityIntervalMS(RobotConfig.octoQuadVelocityIntervalMs);
+        octoQuad.setI2cRecoveryMode(OctoQuad.I2cRecoveryMode.MODE_1_PERIPH_RST_ON_FRAME_ERR);
+        // The settings above only apply after a reset
+        octoQuad.resetLocalizerAndCalibrateIMU();
+
+        return new OctoQuadLocalizer(new Device() {
+            @Override
+            public void readLocalizerData(OctoQuad.LocalizerDataBlock block) {
+                octoQuad.readLocalizerData(block);
+            }
+
+            @Override
+            public void setLocalizerPose(int xMm, int yMm, float headingRad) {
+                octoQuad.setLocalizerPose(xMm, yMm, headingRad);
+            }
+        });
+    }
+
+    @Override
+    public void update() {
+        // One block read: status, pose and velocity together
+        device.readLocalizerData(block);
+        totalPackets++;
+        if (!block.crcOk) {
+            badPackets++;
+            return;
+        }
+        status = block.localizerStatus;
+        if (status != OctoQuad.LocalizerStatus.RUNNING) return;
+
+        timestampNanos = System.nanoTime();
+        x = block.posX_mm / 10.0;
+        y = block.posY_mm / 10.0;
+        heading = block.heading_rad;
+        vx = block.velX_mmS / 10.0;
+        vy = block.velY_mmS / 10.0;
+        omega = block.velHeading_radS;
+    }
+
+    @Override
+    public void setPose(double x, double y, double heading) {
+        device.setLocalizerPose((int) Math.round(x * 10), (int) Math.round(y * 10), (float) heading);
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    /** The OctoQuad has finished calibrating and is reporting poses. */
+    public boolean isReady() {
+        return status == OctoQuad.LocalizerStatus.RUNNING;
+    }
+
+    public OctoQuad.LocalizerStatus getStatus() {
+        return status;
+    }
+
+    public int getBadPackets() {
+        return badPackets;
+    }
+
+    public int getTotalPackets() {
+        return totalPackets;
+    }
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public double getHeading() {
+        return heading;
+    }
+
+    @Override
+    public double getVelocityX() {
+        return vx;
+    }
+
+    @Override
+    public double getVelocityY() {
+        return vy;
+    }
+
+    @Override
+    public double getAngularVelocity() {
+        return omega;
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
@@ -0,0 +1,135 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import com.qualcomm.hardware.sparkfun.SparkFunOTOS;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+
+/**
+ * {@link Localizer} backed by the SparkFun optical tracking odometry sensor (OTOS).
+ * <p>
+ * The OTOS integrates its pose in hardware, much faster than our loop. Each update reads
+ * position, velocity and acceleration in one burst into preallocated poses. The sensor is set
+ * to centimeters and radians, so values pass straight through.
+ * <p>
+ * The device is reached through {@link Device}, so a stand-in can replace it off the robot.
+ */
+public class OtosLocalizer implements Localizer {
+    /** The parts of the OTOS this localizer uses. */
+    public interface Device {
+        void getPosVelAcc(SparkFunOTOS.Pose2D pos, SparkFunOTOS.Pose2D vel, SparkFunOTOS.Pose2D acc);
+
+        void setPosition(SparkFunOTOS.Pose2D pose);
+    }
+
+    private final Device device;
+    private final SparkFunOTOS.Pose2D pos = new SparkFunOTOS.Pose2D();
+    private final SparkFunOTOS.Pose2D vel = new SparkFunOTOS.Pose2D();
+    private final SparkFunOTOS.Pose2D acc = new SparkFunOTOS.Pose2D();
+    private final SparkFunOTOS.Pose2D target = new SparkFunOTOS.Pose2D();
+    private long timestampNanos;
+
+    public OtosLocalizer(Device device) {
+        this.device = device;
+    }
+
+    /**
+     * Apply the mounting offset and scalars from {@link RobotConfig}, calibrate the IMU and
+     * start tracking from the origin. Keep the robot still while this runs.
+     */
+    public static OtosLocalizer create(SparkFunOTOS otos) {
+        otos.setLinearUnit(DistanceUnit.CM);
+        otos.setAngularUnit(AngleUnit.RADIANS);
+
+        // Where the sensor sits relative to the center of the robot
+        otos.setOffset(new SparkFunOTOS.Pose2D(RobotConfig.otosOffsetX, RobotConfig.otosOffsetY,
+                Math.toRadians(RobotConfig.otosOffsetHeadingDeg)));
+        // Measured as actual / reported distance (or rotation), must be within 0.872-1.127
+        otos.setLinearScalar(RobotConfig.otosLinearScalar);
+        otos.setAngularScalar(RobotConfig.otosAngularScalar);
+
+        otos.calibrateImu();
+        otos.resetTracking();
+        otos.setPosition(new SparkFunOTOS.Pose2D(0, 0, 0));
+
+        return new OtosLocalizer(new Device() {
+            @Override
+            public void getPosVelAcc(SparkFunOTOS.Pose2D pos, SparkFunOTOS.Pose2D vel, SparkFunOTOS.Pose2D acc) {
+                otos.getPosVelAcc(pos, vel, acc);
+            }
+
+            @Override
+            public void setPosition(SparkFunOTOS.Pose2D pose) {
+                otos.setPosition(pose);
+            }
+        });
+    }
+
+    @Override
+    public void update() {
+        device.getPosVelAcc(pos, vel, acc);
+        timestampNanos = System.nanoTime();
+    }
+
+    @Override
+    public void setPose(double x, double y, double heading) {
+        target.x = x;
+        target.y = y;
+        target.h = heading;
+        device.setPosition(target);
+        pos.x = x;
+        pos.y = y;
+        pos.h = heading;
+    }
+
+    @Override
+    public double getX() {
+        return pos.x;
+    }
+
+    @Override
+    public double getY() {
+        return pos.y;
+    }
+
+    @Override
+    public double getHeading() {
+        return pos.h;
+    }
+
+    @Override
+    public double getVelocityX() {
+        return vel.x;
+    }
+
+    @Override
+    public double getVelocityY() {
+        return vel.y;
+    }
+
+    @Override
+    public double getAngularVelocity() {
+        return vel.h;
+    }
+
+    /** cm/s^2 */
+    public double getAccelerationX() {
+        return acc.x;
+    }
+
+    /** cm/s^2 */
+    public double getAccelerationY() {
+        return acc.y;
+    }
+
+    /** rad/s^2 */
+    public double getAngularAcceleration() {
+        return acc.h;
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
@@ -0,0 +1,215 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+/**
+ * Extended Kalman filter over the planar pose (x, y, heading).
+ * <p>
+ * Plain math on doubles with no hardware or SDK types, so the same code runs on the robot and
+ * in an offline replay. The covariance is a flat 3x3 array and every step works in place,
+ * so a cycle costs a few dozen multiplies and no allocation.
+ * <p>
+ * Units are centimeters and radians.
+ */
+public class PoseEstimator {
+    private double x, y, heading;
+    // Row-major 3x3 covariance
+    private final double[] p = new double[9];
+
+    // Scratch space, reused every call
+    private final double[] s = new double[9];
+    private final double[] sInv = new double[9];
+    private final double[] k = new double[9];
+    private final double[] tmp = new double[9];
+    private final double[] innovation = new double[3];
+
+    private double lastGateDistance = 0;
+
+    public PoseEstimator() {
+        reset(0, 0, 0, 0, 0);
+    }
+
+    /** Start over at a known pose with the given uncertainty (variances). */
+    public void reset(double x, double y, double heading, double xyVariance, double headingVariance) {
+        this.x = x;
+        this.y = y;
+        this.heading = wrap(heading);
+        for (int i = 0; i < 9; i++) p[i] = 0;
+        p[0] = xyVariance;
+        p[4] = xyVariance;
+        p[8] = headingVariance;
+    }
+
+    /**
+     * Move by a robot-relative odometry step.
+     * @param xyVariancePerCm how much position uncertainty each cm of travel adds
+     * @param headingVariancePerRad how much heading uncertainty each radian of turn adds
+     */
+    public void predict(double dForward, double dStrafe, double dHeading,
+                        double xyVariancePerCm, double headingVariancePerRad) {
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        double dx = dForward * cos - dStrafe * sin;
+        double dy = dForward * sin + dStrafe * cos;
+        x += dx;
+        y += dy;
+        heading = wrap(heading + dHeading);
+
+        // F = [[1, 0, -dy], [0, 1, dx], [0, 0, 1]]; P = F P F^T + Q
+        // F P: rows 0 and 1 pick up a multiple of row 2
+        for (int j = 0; j < 3; j++) {
+            tmp[j] = p[j] - dy * p[6 + j];
+            tmp[3 + j] = p[3 + j] + dx * p[6 + j];
+            tmp[6 + j] = p[6 + j];
+        }
+        // (F P) F^T: columns 0 and 1 pick up a multiple of column 2
+        for (int i = 0; i < 3; i++) {
+            p[i * 3] = tmp[i * 3] - dy * tmp[i * 3 + 2];
+            p[i * 3 + 1] = tmp[i * 3 + 1] + dx * tmp[i * 3 + 2];
+            p[i * 3 + 2] = tmp[i * 3 + 2];
+        }
+
+        double distance = Math.hypot(dForward, dStrafe);
+        p[0] += xyVariancePerCm * distance + 1e-6;
+        p[4] += xyVariancePerCm * distance + 1e-6;
+        p[8] += headingVariancePerRad * Math.abs(dHeading) + 1e-9;
+    }
+
+    /**
+     * Correct heading with an absolute measurement (the IMU).
+     * @return false if the measurement was gated out
+     */
+    public boolean correctHeading(double measuredHeading, double variance, double gate) {
+        double yErr = wrap(measuredHeading - heading);
+        double sVar = p[8] + variance;
+        lastGateDistance = yErr * yErr / sVar;
+        if (lastGateDistance > gate) return false;
+
+        double k0 = p[2] / sVar;
+        double k1 = p[5] / sVar;
+        double k2 = p[8] / sVar;
+        x += k0 * yErr;
+        y += k1 * yErr;
+        heading = wrap(heading + k2 * yErr);
+
+        // P = (I - K H) P, H picks heading: subtract K times row 2
+        double r0 = p[6], r1 = p[7], r2 = p[8];
+        p[0] -= k0 * r0; p[1] -= k0 * r1; p[2] -= k0 * r2;
+        p[3] -= k1 * r0; p[4] -= k1 * r1; p[5] -= k1 * r2;
+        p[6] -= k2 * r0; p[7] -= k2 * r1; p[8] -= k2 * r2;
+        symmetrize();
+        return true;
+    }
+
+    /**
+     * Correct with a full pose measurement (an AprilTag robot pose).
+     * <p>
+     * The innovation is taken against {@code (priorX, priorY, priorHeading)}, the estimate at the
+     * time the measurement was captured, and applied to the current state. That keeps a late
+     * camera frame from dragging the robot back to where it was.
+     *
+     * @param gate reject if the squared Mahalanobis distance is above this (chi-square, 3 DOF)
+     * @return false if the measurement was gated out
+     */
+    public boolean correctPose(double measuredX, double measuredY, double measuredHeading,
+                               double priorX, double priorY, double priorHeading,
+                               double xyVariance, double headingVariance, double gate) {
+        innovation[0] = measuredX - priorX;
+        innovation[1] = measuredY - priorY;
+        innovation[2] = wrap(measuredHeading - priorHeading);
+
+        // S = P + R
+        System.arraycopy(p, 0, s, 0, 9);
+        s[0] += xyVariance;
+        s[4] += xyVariance;
+        s[8] += headingVariance;
+        if (!invert3(s, sInv)) return false;
+
+        // d^2 = y^T S^-1 y
+        double d2 = 0;
+        for (int i = 0; i < 3; i++) {
+            double row = 0;
+            for (int j = 0; j < 3; j++) row += sInv[i * 3 + j] * innovation[j];
+            d2 += innovation[i] * row;
+        }
+        lastGateDistance = d2;
+        if (d2 > gate) return false;
+
+        // K = P S^-1
+        multiply(p, sInv, k);
+
+        for (int i = 0; i < 3; i++) {
+            double correction = k[i * 3] * innovation[0] + k[i * 3 + 1] * innovation[1] + k[i * 3 + 2] * innovation[2];
+            if (i == 0) x += correction;
+            else if (i == 1) y += correction;
+            else heading = wrap(heading + correction);
+        }
+
+        // P = (I - K) P
+        multiply(k, p, tmp);
+        for (int i = 0; i < 9; i++) p[i] -= tmp[i];
+        symmetrize();
+        return true;
+    }
+
+    /** Squared Mahalanobis distance of the last measurement, accepted or not. */
+    public double getLastGateDistance() {
+        return lastGateDistance;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getHeading() {
+        return heading;
+    }
+
+    /** Covariance entry, row-major. */
+    public double getCovariance(int row, int col) {
+        return p[row * 3 + col];
+    }
+
+    private void symmetrize() {
+        double a = (p[1] + p[3]) / 2, b = (p[2] + p[6]) / 2, c = (p[5] + p[7]) / 2;
+        p[1] = p[3] = a;
+        p[2] = p[6] = b;
+        p[5] = p[7] = c;
+    }
+
+    private static void multiply(double[] a, double[] b, double[] out) {
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                out[i * 3 + j] = a[i * 3] * b[j] + a[i * 3 + 1] * b[3 + j] + a[i * 3 + 2] * b[6 + j];
+            }
+        }
+    }
+
+    private static boolean invert3(double[] m, double[] out) {
+        double c00 = m[4] * m[8] - m[5] * m[7];
+        double c01 = m[5] * m[6] - m[3] * m[8];
+        double c02 = m[3] * m[7] - m[4] * m[6];
+        double det = m[0] * c00 + m[1] * c01 + m[2] * c02;
+        if (Math.abs(det) < 1e-12) return false;
+        double inv = 1 / det;
+        out[0] = c00 * inv;
+        out[1] = (m[2] * m[7] - m[1] * m[8]) * inv;
+        out[2] = (m[1] * m[5] - m[2] * m[4]) * inv;
+        out[3] = c01 * inv;
+        out[4] = (m[0] * m[8] - m[2] * m[6]) * inv;
+        out[5] = (m[2] * m[3] - m[0] * m[5]) * inv;
+        out[6] = c02 * inv;
+        out[7] = (m[1] * m[6] - m[0] * m[7]) * inv;
+        out[8] = (m[0] * m[4] - m[1] * m[3]) * inv;
+        return true;
+    }
+
+    /** Wrap to [-pi, pi). Kept local so the filter doesn't need the SDK. */
+    static double wrap(double angle) {
+        angle = (angle + Math.PI) % (2 * Math.PI);
+        if (angle < 0) angle += 2 * Math.PI;
+        return angle - Math.PI;
+    }
+}
@@ -0,0 +1,196 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring buffer of timestamped poses, so late measurements (camera frames arrive
+ * 50-150 ms after capture) can be compared with where the robot was when the frame was taken.
+ * <p>
+ * Everything lives in preallocated primitive arrays; nothing allocates after construction.
+ * There is one writer (the control thread, which calls {@link #add} and {@link #correct}) and any
+ * number of readers. Readers use a sequence lock: they retry if a write happened while they
+ * were reading, so they never see a half-written pose and never block the writer.
+ */
+public class PoseHistory {
+    private static final int X = 0, Y = 1, HEADING = 2;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray times;
+    private final AtomicLongArray poses; // x, y, heading per entry, as raw double bits
+
+    // Odd while the writer is in the middle of a change
+    private final AtomicLong sequence = new AtomicLong();
+    // Total entries ever added; only written by the writer
+    private volatile long written = 0;
+
+    /** @param capacity rounded up to a power of two */
+    public PoseHistory(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        times = new AtomicLongArray(size);
+        poses = new AtomicLongArray(size * 3);
+    }
+
+    // --- Writer ---
+
+    /**
+     * Record the pose at a time. Timestamps have to increase; anything older than the newest
+     * entry is ignored.
+     */
+    public void add(long nanos, double x, double y, double heading) {
+        long n = written;
+        if (n > 0 && nanos <= times.get((int) ((n - 1) & mask))) return;
+
+        int slot = (int) (n & mask);
+        sequence.incrementAndGet();
+        times.lazySet(slot, nanos);
+        putPose(slot, x, y, heading);
+        written = n + 1;
+        sequence.incrementAndGet();
+    }
+
+    /**
+     * Apply a measurement of where the robot was at {@code nanos}.
+     * <p>
+     * The difference between the measurement and the stored pose at that time is a rigid
+     * transform; it's applied to every entry, so the motion recorded since the measurement is
+     * kept and the history stays in the same frame as the corrected localizer.
+     *
+     * @param out receives the corrected newest pose (x, y, heading) to hand to the localizer
+     * @return false if {@code nanos} is outside the history and nothing changed
+     */
+    public boolean correct(long nanos, double x, double y, double heading, double[] out) {
+        if (!getAt(nanos, out)) return false;
+
+        // measured = T(historical)  ->  T = rotate by dTheta about the historical point, then move
+        double dTheta = AngleUnit.normalizeRadians(heading - out[HEADING]);
+        double cos = Math.cos(dTheta);
+        double sin = Math.sin(dTheta);
+        double pivotX = out[X];
+        double pivotY = out[Y];
+
+        long n = written;
+        long first = Math.max(0, n - capacity);
+        sequence.incrementAndGet();
+        for (long i = first; i < n; i++) {
+            int slot = (int) (i & mask);
+            double px = pose(slot, X) - pivotX;
+            double py = pose(slot, Y) - pivotY;
+            putPose(slot,
+                    x + px * cos - py * sin,
+                    y + px * sin + py * cos,
+                    AngleUnit.normalizeRadians(pose(slot, HEADING) + dTheta));
+        }
+        sequence.incrementAndGet();
+
+        return getNewest(out);
+    }
+
+    // --- Readers ---
+
+    /**
+     * Pose at a past time, linearly interpolated between the two entries around it.
+     * O(log n). Times after the newest entry get the newest pose.
+     *
+     * @param out receives x, y, heading
+     * @return false if the time is before the oldest entry or the history is empty
+     */
+    public boolean getAt(long nanos, double[] out) {
+        while (true) {
+            long seq = sequence.get();
+            if ((seq & 1) != 0) {
+                Thread.yield();
+                continue;
+            }
+            boolean found = lookup(nanos, out);
+            if (sequence.get() == seq) return found;
+        }
+    }
+
+    /** The most recent pose. */
+    public boolean getNewest(double[] out) {
+        return getAt(Long.MAX_VALUE, out);
+    }
+
+    public long getNewestTime() {
+        while (true) {
+            long seq = sequence.get();
+            long n = written;
+            long t = n == 0 ? 0 : times.get((int) ((n - 1) & mask));
+            if ((seq & 1) == 0 && sequence.get() == seq) return t;
+        }
+    }
+
+    public int size() {
+        return (int) Math.min(written, capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Drop everything. Writer only. */
+    public void clear() {
+        sequence.incrementAndGet();
+        written = 0;
+        sequence.incrementAndGet();
+    }
+
+    private boolean lookup(long nanos, double[] out) {
+        long n = written;
+        if (n == 0) return false;
+        long first = Math.max(0, n - capacity);
+
+        if (nanos < times.get((int) (first & mask))) return false;
+        int newest = (int) ((n - 1) & mask);
+        if (nanos >= times.get(newest)) {
+            copyPose(newest, out);
+            return true;
+        }
+
+        // Last entry at or before nanos; lo is always valid, hi is always after nanos
+        long lo = first, hi = n - 1;
+        while (hi - lo > 1) {
+            long mid = (lo + hi) >>> 1;
+            if (times.get((int) (mid & mask)) <= nanos) lo = mid;
+            else hi = mid;
+        }
+
+        int a = (int) (lo & mask);
+        int b = (int) (hi & mask);
+        long ta = times.get(a);
+        long tb = times.get(b);
+        double f = tb == ta ? 0 : (double) (nanos - ta) / (tb - ta);
+
+        out[X] = lerp(pose(a, X), pose(b, X), f);
+        out[Y] = lerp(pose(a, Y), pose(b, Y), f);
+        out[HEADING] = AngleUnit.normalizeRadians(
+                pose(a, HEADING) + f * AngleUnit.normalizeRadians(pose(b, HEADING) - pose(a, HEADING)));
+        return true;
+    }
+
+    private static double lerp(double a, double b, double f) {
+        return a + (b - a) * f;
+    }
+
+    private double pose(int slot, int field) {
+        return Double.longBitsToDouble(poses.get(slot * 3 + field));
+    }
+
+    private void copyPose(int slot, double[] out) {
+        out[X] = pose(slot, X);
+        out[Y] = pose(slot, Y);
+        out[HEADING] = pose(slot, HEADING);
+    }
+
+    private void putPose(int slot, double x, double y, double heading) {
+        poses.lazySet(slot * 3 + X, Double.doubleToRawLongBits(x));
+        poses.lazySet(slot * 3 + Y, Double.doubleToRawLongBits(y));
+        poses.lazySet(slot * 3 + HEADING, Double.doubleToRawLongBits(heading));
+    }
+}
@@ -0,0 +1,173 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.BulkReader;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.HardwareSnapshot;
+
+/**
+ * Three dead-wheel odometry: two parallel wheels (left, right) and one perpendicular (center).
+ * <p>
+ * Every update takes the encoder deltas since the last one, turns them into a robot-relative
+ * twist and integrates it with the pose exponential, so driving while turning follows the arc
+ * instead of a straight chord. State is plain doubles and nothing is allocated per update, so
+ * it runs every loop. It only needs tick counts, which makes it easy to feed synthetic traces
+ * through {@link #update(int, int, int, double, long)}.
+ * <p>
+ * Units are centimeters and radians, counter-clockwise positive. If the track width is 0
+ * (not measured yet), heading comes from the IMU instead of the wheels.
+ */
+public class ThreeWheelLocalizer implements Localizer {
+    private final BulkReader source;
+    private final double cmPerTick;
+    private final double trackWidth;
+    private final double centerWheelOffset;
+    private final int leftSign, rightSign, centerSign;
+
+    private double x, y, heading;
+    private int lastLeft, lastRight, lastCenter;
+    private double lastImuYaw;
+    private boolean initialized = false;
+    private long timestampNanos;
+    private final VelocityTracker velocity = new VelocityTracker();
+
+    /**
+     * @param source where {@link #update()} gets its encoder values; can be null if only fed by hand
+     * @param cmPerTick distance one encoder tick covers
+     * @param trackWidth distance between the left and right wheels, cm
+     * @param centerWheelOffset how far the center wheel sits in front of the center of rotation, cm
+     * @param leftSign +1 or -1 so every wheel counts up going forward / left
+     */
+    public ThreeWheelLocalizer(BulkReader source, double cmPerTick, double trackWidth, double centerWheelOffset,
+                               int leftSign, int rightSign, int centerSign) {
+        this.source = source;
+        this.cmPerTick = cmPerTick;
+        this.trackWidth = trackWidth;
+        this.centerWheelOffset = centerWheelOffset;
+        this.leftSign = leftSign;
+        this.rightSign = rightSign;
+        this.centerSign = centerSign;
+    }
+
+    @Override
+    public void update() {
+        update(source.getLatest());
+    }
+
+    /** Integrate the encoder values from one bulk read. */
+    public void update(HardwareSnapshot snapshot) {
+        update(snapshot.leftTicks, snapshot.rightTicks, snapshot.centerTicks,
+                Math.toRadians(snapshot.yawDegrees), snapshot.timestampNanos);
+    }
+
+    /**
+     * Integrate raw encoder positions.
+     * @param imuYaw only used when the track width is 0
+     */
+    public void update(int leftTicks, int rightTicks, int centerTicks, double imuYaw, long nanos) {
+        timestampNanos = nanos;
+        if (!initialized) {
+            // First reading only sets the reference, the robot hasn't moved relative to it
+            lastLeft = leftTicks;
+            lastRight = rightTicks;
+            lastCenter = centerTicks;
+            lastImuYaw = imuYaw;
+            initialized = true;
+            return;
+        }
+
+        // 1. Wheel travel since the last update
+        double dLeft = leftSign * (leftTicks - lastLeft) * cmPerTick;
+        double dRight = rightSign * (rightTicks - lastRight) * cmPerTick;
+        double dCenter = centerSign * (centerTicks - lastCenter) * cmPerTick;
+        lastLeft = leftTicks;
+        lastRight = rightTicks;
+        lastCenter = centerTicks;
+
+        // 2. Robot-relative twist
+        double dTheta;
+        if (trackWidth > 0) {
+            dTheta = (dRight - dLeft) / trackWidth;
+        } else {
+            dTheta = AngleUnit.normalizeRadians(imuYaw - lastImuYaw);
+        }
+        lastImuYaw = imuYaw;
+        double dForward = (dLeft + dRight) / 2;
+        // The center wheel also rolls when the robot turns, take that part out
+        double dStrafe = dCenter - centerWheelOffset * dTheta;
+
+        // 3. Pose exponential: sin(t)/t and (1 - cos(t))/t, with Taylor series near 0
+        double s, c;
+        if (Math.abs(dTheta) < 1e-6) {
+            s = 1 - dTheta * dTheta / 6;
+            c = dTheta / 2;
+        } else {
+            s = Math.sin(dTheta) / dTheta;
+            c = (1 - Math.cos(dTheta)) / dTheta;
+        }
+        double relX = dForward * s - dStrafe * c;
+        double relY = dForward * c + dStrafe * s;
+
+        // 4. Rotate into the field frame and accumulate
+        double cos = Math.cos(heading);
+        double sin = Math.sin(heading);
+        x += relX * cos - relY * sin;
+        y += relX * sin + relY * cos;
+        heading = AngleUnit.normalizeRadians(heading + dTheta);
+        velocity.update(x, y, heading, nanos);
+    }
+
+    /** Move the pose estimate without touching the encoder reference. */
+    /** True while there's no track width, so {@link #getHeading()} follows the IMU yaw. */
+    public boolean isHeadingFromImu() {
+        return trackWidth <= 0;
+    }
+
+    @Override
+    public void setPose(double x, double y, double heading) {
+        this.x = x;
+        this.y = y;
+        this.heading = AngleUnit.normalizeRadians(heading);
+        velocity.reset();
+    }
+
+    /** Take the next reading as the new reference, e.g. after resetting encoders. */
+    @Override
+    public void resetReference() {
+        initialized = false;
+    }
+
+    @Override
+    public double getX() {
+        return x;
+    }
+
+    @Override
+    public double getY() {
+        return y;
+    }
+
+    @Override
+    public double getHeading() {
+        return heading;
+    }
+
+    @Override
+    public double getVelocityX() {
+        return velocity.getVelocityX();
+    }
+
+    @Override
+    public double getVelocityY() {
+        return velocity.getVelocityY();
+    }
+
+    @Override
+    public double getAngularVelocity() {
+        return velocity.getAngularVelocity();
+    }
+
+    @Override
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
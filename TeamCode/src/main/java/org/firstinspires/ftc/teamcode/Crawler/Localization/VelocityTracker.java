@@ -0,0 +1,45 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+
+/**
+ * Field velocity from consecutive pose estimates, for backends that only report position.
+ */
+public final class VelocityTracker {
+    private double lastX, lastY, lastHeading;
+    private long lastNanos = 0;
+    private double vx, vy, omega;
+
+    public void update(double x, double y, double heading, long nanos) {
+        if (lastNanos != 0 && nanos > lastNanos) {
+            double dt = (nanos - lastNanos) / 1e9;
+            vx = (x - lastX) / dt;
+            vy = (y - lastY) / dt;
+            omega = AngleUnit.normalizeRadians(heading - lastHeading) / dt;
+        }
+        if (nanos != lastNanos) {
+            lastX = x;
+            lastY = y;
+            lastHeading = heading;
+            lastNanos = nanos;
+        }
+    }
+
+    /** Forget the last pose, e.g. after the pose was set by hand. */
+    public void reset() {
+        lastNanos = 0;
+        vx = vy = omega = 0;
+    }
+
+    public double getVelocityX() {
+        return vx;
+    }
+
+    public double getVelocityY() {
+        return vy;
+    }
+
+    public double getAngularVelocity() {
+        return omega;
+    }
+}
@@ -0,0 +1,42 @@
+package org.firstinspires.ftc.teamcode.Crawler.Path;
+
+import com.arcrobotics.ftclib.geometry.Pose2d;
+
+import java.util.List;
+
+/**
+ * Builds paths from FTCLib poses. The path classes themselves live in the PathCore module,
+ * which the trajectory processor runs from, so they only take plain arrays.
+ */
+public final class PosePaths {
+    private PosePaths() {}
+
+    /** {@link SplinePath#hermite(double[], double[], double[])} through the poses. */
+    public static SplinePath hermite(List<Pose2d> waypoints) {
+        double[][] xyh = unpack(waypoints);
+        return SplinePath.hermite(xyh[0], xyh[1], xyh[2]);
+    }
+
+    /** {@link SplinePath#catmullRom(double[], double[])} through the poses; rotations are ignored. */
+    public static SplinePath catmullRom(List<Pose2d> waypoints) {
+        double[][] xyh = unpack(waypoints);
+        return SplinePath.catmullRom(xyh[0], xyh[1]);
+    }
+
+    /** The poses as a polyline pursuit path, holding each one's heading. */
+    public static PurePursuitPath pursuitPath(List<Pose2d> poses, int window) {
+        double[][] xyh = unpack(poses);
+        return new PurePursuitPath(xyh[0], xyh[1], xyh[2], window);
+    }
+
+    // x, y and heading arrays
+    private static double[][] unpack(List<Pose2d> poses) {
+        double[][] xyh = new double[3][poses.size()];
+        for (int i = 0; i < poses.size(); i++) {
+            xyh[0][i] = poses.get(i).getX();
+            xyh[1][i] = poses.get(i).getY();
+            xyh[2][i] = poses.get(i).getHeading();
+        }
+        return xyh;
+    }
+}
@@ -3,16 +3,44 @@ package org.firstinspires.ftc.teamcode.Crawler;
 import static java.lang.Thread.sleep;
 
 import com.arcrobotics.ftclib.hardware.motors.MotorEx;
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.hardware.sparkfun.SparkFunOTOS;
 import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.hardware.ColorSensor;
 import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 import com.qualcomm.robotcore.hardware.IMU;
 import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+import com.qualcomm.robotcore.util.RobotLog;
 
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.Crawler.FieldOrient.Odometry;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.BulkReader;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.DriveOutput;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.ImuReader;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.FusionLocalizer;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.Localizer;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.OctoQuadLocalizer;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.OtosLocalizer;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.PoseHistory;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.ThreeWheelLocalizer;
 import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.IndexerRotation;
+import org.firstinspires.ftc.teamcode.Crawler.Subsystems.Flywheel;
+import org.firstinspires.ftc.teamcode.Crawler.Subsystems.IndexerController;
+import org.firstinspires.ftc.teamcode.Crawler.Subsystems.ShootSequence;
+
+import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class Robot {
 
@@ -22,15 +50,26 @@ public class Robot {
     static final double COUNTS_PER_DEGREE = (COUNTS_PER_MOTOR_REV * DRIVE_GEAR_REDUCTION) / 360;
 
     DcMotor frontRight , frontLeft, backRight, backLeft;
-    DcMotor shooterLeft, shooterRight;
+    DcMotorEx shooterLeft, shooterRight;
+    public Flywheel flywheel;
     public DcMotor indexer;
+    public IndexerController indexerController;
+    public ShootSequence shootRoutine;
     DcMotor gobbler;
 
     public MotorEx leftEncoder, rightEncoder, centerEncoder;
+    public Localizer localizer;
+    // About 2.5 s at 50 Hz, plenty for camera latency
+    public final PoseHistory poseHistory = new PoseHistory(128);
+    private final double[] correctedPose = new double[3];
 
     public ColorSensor ballColorSensor;
     public Servo lifter;
     public IMU imu;
+    public ImuReader imuReader;
+
+    public BulkReader bulkReader;
+    public DriveOutput driveOutput;
 
     int counter = 0;
 
@@ -42,17 +81,18 @@ public class Robot {
         frontRight = hwMap.get(DcMotor.class , "frontRight");
         backRight = hwMap.get(DcMotor.class, "backRight");
         backLeft = hwMap.get(DcMotor.class, "backLeft");
+        driveOutput = new DriveOutput(frontLeft, frontRight, backLeft, backRight, RobotConfig.motorWriteEpsilon);
 
-        leftEncoder = (MotorEx) hwMap.get(DcMotor.class, RobotConfig.encodeLeftName);
-        rightEncoder = (MotorEx) hwMap.get(DcMotor.class, RobotConfig.encoderRightName);
-        centerEncoder = (MotorEx) hwMap.get(DcMotor.class, RobotConfig.encoderCenterName);
+        leftEncoder = new MotorEx(hwMap, RobotConfig.encodeLeftName);
+        rightEncoder = new MotorEx(hwMap, RobotConfig.encoderRightName);
+        centerEncoder = new MotorEx(hwMap, RobotConfig.encoderCenterName);
 
-        leftEncoder.setDistancePerPulse(RobotConfig.TICKS_PER_CM);
-        rightEncoder.setDistancePerPulse(RobotConfig.TICKS_PER_CM);
-        centerEncoder.setDistancePerPulse(RobotConfig.TICKS_PER_CM);
+        leftEncoder.setDistancePerPulse(1.0 / RobotConfig.TICKS_PER_CM);
+        rightEncoder.setDistancePerPulse(1.0 / RobotConfig.TICKS_PER_CM);
+        centerEncoder.setDistancePerPulse(1.0 / RobotConfig.TICKS_PER_CM);
 
-        shooterLeft = hwMap.get(DcMotor.class, "leftShoot");
-        shooterRight = hwMap.get(DcMotor.class, "rightShoot");
+        shooterLeft = hwMap.get(DcMotorEx.class, "leftShoot");
+        shooterRight = hwMap.get(DcMotorEx.class, "rightShoot");
 
         shooterLeft.setDirection(DcMotorSimple.Direction.FORWARD);
         shooterRight.setDirection(DcMotorSimple.Direction.FORWARD);
@@ -60,6 +100,9 @@ public class Robot {
         shooterRight.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
         shooterLeft.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
 
+        VoltageSensor battery = hwMap.voltageSensor.iterator().next();
+        flywheel = new Flywheel(shooterLeft, shooterRight, battery);
+
         // --- 2. UPDATED INDEXER SETUP ---
         indexer = hwMap.get(DcMotor.class, "indexer");
         indexer.setZeroPowerBehavior(DcMotor.ZeroPowerBehavior.BRAKE);
@@ -67,6 +110,7 @@ public class Robot {
         // Important: Reset encoder to 0 when robot starts
         indexer.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
         indexer.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+        indexerController = new IndexerController(indexer, COUNTS_PER_DEGREE);
 
         gobbler = hwMap.get(DcMotor.class, "gobbler");
         gobbler.setDirection(DcMotorSimple.Direction.REVERSE);
@@ -74,28 +118,92 @@ public class Robot {
         ballColorSensor = hwMap.get(ColorSensor.class , "colorSensor");
 
         lifter = hwMap.get(Servo.class, "lifter");
+        shootRoutine = new ShootSequence(this);
 
         imu = hwMap.get(IMU.class, "imu");
         imu.initialize(new IMU.Parameters(new RevHubOrientationOnRobot(
                 RevHubOrientationOnRobot.LogoFacingDirection.RIGHT,
                 RevHubOrientationOnRobot.UsbFacingDirection.UP)));
+
+        // The IMU is only ever read on its own thread, everything else goes through imuReader
+        imuReader = new ImuReader(imu);
+        imuReader.start();
+
+        // Odometry pods share the drive motor ports, see RobotConfig for which is which
+        bulkReader = new BulkReader(hwMap.getAll(LynxModule.class),
+                leftEncoder.motorEx, rightEncoder.motorEx, centerEncoder.motorEx, imuReader);
+
+        localizer = createLocalizer(hwMap);
+    }
+
+    private Localizer createLocalizer(HardwareMap hwMap) {
+        switch (RobotConfig.localizer) {
+            case OCTOQUAD:
+                return OctoQuadLocalizer.create(hwMap.get(OctoQuad.class, RobotConfig.octoQuadName));
+            case OTOS:
+                return OtosLocalizer.create(hwMap.get(SparkFunOTOS.class, RobotConfig.otosName));
+            case FUSION:
+                File log = RobotConfig.logFusion
+                        ? new File(AppUtil.ROBOT_DATA_DIR, "fusion_" + System.currentTimeMillis() + ".csv")
+                        : null;
+                return new FusionLocalizer(createThreeWheelLocalizer(), imuReader, log);
+            case FTCLIB_ODOMETRY:
+                if (RobotConfig.TRACK_WIDTH > 0) return new Odometry(this);
+                RobotLog.ww("Robot", "FTCLib odometry needs TRACK_WIDTH, using three-wheel localizer");
+                // fall through
+            case THREE_WHEEL:
+            default:
+                return createThreeWheelLocalizer();
+        }
+    }
+
+    private ThreeWheelLocalizer createThreeWheelLocalizer() {
+        return new ThreeWheelLocalizer(bulkReader, 1.0 / RobotConfig.TICKS_PER_CM,
+                RobotConfig.TRACK_WIDTH, RobotConfig.CENTER_WHEEL_OFFSET,
+                RobotConfig.leftEncoderSign, RobotConfig.rightEncoderSign, RobotConfig.centerEncoderSign);
     }
 
+    /**
+     * Stop the background threads. Call this when the OpMode ends.
+     */
+    public void close() {
+        imuReader.stop();
+        localizer.close();
+    }
+
+    /**
+     * Spin the flywheels up to {@link RobotConfig#flywheelTargetTicksPerSec}, or stop them.
+     * The velocity loop runs in {@link #update()}.
+     */
     public void activateShooters(boolean stop) {
-        if(stop) {
-            shooterRight.setPower(0);
-            shooterLeft.setPower(0);
-        } else {
-            shooterLeft.setPower(1);
-            shooterRight.setPower(1);
+        flywheel.setTarget(stop ? 0 : RobotConfig.flywheelTargetTicksPerSec);
+    }
+
+    /**
+     * True once both flywheels are at shooting speed.
+     */
+    public boolean shootersReady() {
+        return flywheel.atSpeed();
+    }
+
+    /**
+     * Spin the flywheels up and block until they are at speed or {@link RobotConfig#flywheelSpinUpTimeoutMs}
+     * runs out, keeping the robot ticking meanwhile. For code with no control loop of its own.
+     * @return true if they reached speed
+     */
+    public boolean spinUpShooters() throws InterruptedException {
+        activateShooters(false);
+        long deadline = System.nanoTime() + RobotConfig.flywheelSpinUpTimeoutMs * 1_000_000L;
+        while (!shootersReady() && System.nanoTime() < deadline) {
+            bulkReader.update();
+            update();
+            sleep(5);
         }
+        return shootersReady();
     }
 
     public void powerDriveTrain(double frontLeftPower, double frontRightPower, double backLeftPower, double backRightPower) {
-        frontLeft.setPower(-frontLeftPower);
-        frontRight.setPower(frontRightPower);
-        backLeft.setPower(-backLeftPower);
-        backRight.setPower(backRightPower);
+        driveOutput.write(-frontLeftPower, frontRightPower, -backLeftPower, backRightPower);
     }
 
     public void activateGobbler(boolean gooble) {
@@ -133,7 +241,7 @@ public class Robot {
         double r = Math.hypot(strafe, forward);
 
         theta = AngleUnit.normalizeRadians(
-                theta - imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.RADIANS)
+                theta - imuReader.getYawRadians()
         );
 
         double newForward = r * Math.sin(theta);
@@ -143,94 +251,100 @@ public class Robot {
     }
 
     // --- 3. UPDATED PRECISE INDEXER METHOD ---
-    public void rotateIndexer(double degrees, IndexerRotation direction) {
-        int newTargetPosition;
-        int currentPosition = indexer.getCurrentPosition();
-        int tickMovement = (int) (degrees * COUNTS_PER_DEGREE);
-
-        if (direction == IndexerRotation.COUNTERCLOCKWISE){
-            newTargetPosition = currentPosition + tickMovement;
-        } else {
-            newTargetPosition = currentPosition - tickMovement;
-        }
+    /**
+     * Start rotating the indexer. Returns right away; the move runs as {@link #update()} is called.
+     */
+    public CompletableFuture<IndexerController.Result> rotateIndexer(double degrees, IndexerRotation direction) {
+        return indexerController.rotate(degrees, direction, 0.5);
+    }
 
-        indexer.setTargetPosition(newTargetPosition);
-        indexer.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        indexer.setPower(0.5); // Set speed
+    /**
+     * Tick everything on the robot that runs in the background. Call once per loop,
+     * after the bulk read.
+     */
+    public void update() {
+        localizer.update();
+        poseHistory.add(localizer.getTimestampNanos(), localizer.getX(), localizer.getY(), localizer.getHeading());
+        flywheel.update();
+        indexerController.update();
+        shootRoutine.update();
+    }
 
-        // Wait until motor is done moving
-        while (indexer.isBusy()) {
-            // efficient wait
+    /**
+     * Apply a delayed pose measurement, e.g. from an AprilTag frame.
+     * Looks up where we were at capture time and carries the difference forward to now.
+     * Call from the control thread.
+     * @param captureNanos {@link System#nanoTime()} when the measurement was taken
+     * @return false if the measurement is older than the pose history
+     */
+    public boolean correctPose(long captureNanos, double x, double y, double heading) {
+        if (!poseHistory.correct(captureNanos, x, y, heading, correctedPose)) return false;
+        localizer.setPose(correctedPose[0], correctedPose[1], correctedPose[2]);
+        return true;
+    }
 
+    /**
+     * Pass the robot poses from a batch of AprilTag detections to the localizer.
+     * Only does something with {@link org.firstinspires.ftc.teamcode.Crawler.Localization.LocalizerType#FUSION}.
+     */
+    public void addTagDetections(List<AprilTagDetection> detections) {
+        if (detections == null) return;
+        for (AprilTagDetection detection : detections) {
+            // robotPose is only filled in for tags with known field positions
+            if (detection.metadata == null || detection.robotPose == null) continue;
+            Position position = detection.robotPose.getPosition().toUnit(DistanceUnit.CM);
+            double heading = detection.robotPose.getOrientation().getYaw(AngleUnit.RADIANS);
+            localizer.addVisionMeasurement(detection.frameAcquisitionNanoTime, position.x, position.y, heading);
         }
+    }
 
-        indexer.setPower(0);
-        indexer.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+    /**
+     * Block until an indexer move finishes, keeping the robot ticking meanwhile.
+     * Only for code that has nothing else to do (like the fixed shoot sequence).
+     */
+    public IndexerController.Result awaitIndexer(CompletableFuture<IndexerController.Result> move) throws InterruptedException {
+        while (!move.isDone()) {
+            bulkReader.update();
+            update();
+            sleep(5);
+        }
+        return move.getNow(IndexerController.Result.CANCELLED);
     }
 
     // --- 4. UPDATED SHOOT SEQUENCE (120 Degrees) ---
-    public void shootSequence() throws InterruptedException {
-        // 3 slots = 360 / 3 = 120 degrees
-        double indexAngle = 120;
-
-        rotateIndexer(60,IndexerRotation.CLOCKWISE);  // move from gobble indexer alignment to shooting alignment
-
-        activateShooters(false);
-        sleep(1500);
-
-        // Shot 1
-        sleep(1500);
-        lifter.setPosition(-0.8);
-        sleep(2000);
-        lifter.setPosition(1);
-        sleep(500);
-
-        // Move to Slot 2
-        rotateIndexer(indexAngle, IndexerRotation.CLOCKWISE);
-
-        // Shot 2
-        sleep(1500);
-        lifter.setPosition(-0.8);
-        sleep(2000);
-        lifter.setPosition(1);
-        sleep(500);
-
-        // Move to Slot 3
-        rotateIndexer(indexAngle, IndexerRotation.CLOCKWISE);
-
-        // Shot 3
-        sleep(1500);
-        lifter.setPosition(-0.8);
-        sleep(2000);
-        lifter.setPosition(1);
-        sleep(500);
+    /**
+     * Start shooting all three balls. Returns right away; the sequence runs as {@link #update()} is called.
+     * @return completes with true after the last shot, false if it was aborted
+     */
+    public CompletableFuture<Boolean> startShootSequence() {
+        return shootRoutine.start();
+    }
 
-        activateShooters(true);
+    public boolean isShooting() {
+        return shootRoutine.isRunning();
+    }
 
-        realignIndexer();
+    /**
+     * Blocking version of {@link #startShootSequence()} for autos that have nothing else to do.
+     */
+    public void shootSequence() throws InterruptedException {
+        CompletableFuture<Boolean> done = startShootSequence();
+        while (!done.isDone()) {
+            bulkReader.update();
+            update();
+            sleep(5);
+        }
     }
 
-    public void cycleIndexer() throws InterruptedException {
+    public CompletableFuture<IndexerController.Result> cycleIndexer() {
         // Cycles one slot (120 degrees)
-        rotateIndexer(120, IndexerRotation.CLOCKWISE);
+        return rotateIndexer(120, IndexerRotation.CLOCKWISE);
     }
 
-    public void realignIndexer() {
+    public CompletableFuture<IndexerController.Result> realignIndexer() {
         // Force the motor to go back to the saved "0" spot
-        indexer.setTargetPosition(indexerHome);
-        indexer.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        indexer.setPower(0.8); // Use higher power to ensure it snaps back firmly
-
-        // Wait for it to get there
-        while (indexer.isBusy()) {
-            // waiting...
-        }
-
-        // OPTIONAL: Keep the motor powered to Hold position
-        // If you set power to 0, it might slip again.
-        // Leaving it in RUN_TO_POSITION with power holds it stiff.
-        indexer.setPower(0);
-        indexer.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+        // Use higher power to ensure it snaps back firmly
+        return indexerController.moveTo(indexerHome, 0.8);
     }
 
     public boolean isBallThere() {
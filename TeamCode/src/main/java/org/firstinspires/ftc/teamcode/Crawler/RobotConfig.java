@@ -2,6 +2,8 @@ package org.firstinspires.ftc.teamcode.Crawler;
 
 import com.acmerobotics.dashboard.config.Config;
 
+import org.firstinspires.ftc.teamcode.Crawler.Localization.LocalizerType;
+
 /**
  * Internal configuration class, primarily to allow for simpler configuration
  */
@@ -11,35 +13,155 @@ public class RobotConfig {
     public static final double ENCODER_TICKS_PER_REV = 2000;
     public static final double ODO_WHEEL_CIRCUMFERENCE = ODO_WHEEL_DIAMETER_METERS * Math.PI;
     public static final double TICKS_PER_METER = (ENCODER_TICKS_PER_REV / ODO_WHEEL_CIRCUMFERENCE);
-    public static final double TICKS_PER_CM = TICKS_PER_METER * 100;
+    public static final double TICKS_PER_CM = TICKS_PER_METER / 100;
 
     //Trackwidth is the distance between the center of the left parallel encoder wheel (or drive wheel) and the center of the right parallel encoder wheel.
-    public static final double TRACK_WIDTH = 0; //MAKE SHURE THIS IS CM
+    // Leave at 0 until measured, the localizer then takes heading from the IMU
+    public static double TRACK_WIDTH = 0; //MAKE SHURE THIS IS CM
     //The Center Wheel Offset (often called the "Perpendicular Offset") tells the odometry math where the tracking wheel is located relative to the robot's center of rotation.
-    public static final double CENTER_WHEEL_OFFSET = 0; //IN centimeter
+    public static double CENTER_WHEEL_OFFSET = 0; //IN centimeter
+
+    public static String encodeLeftName = "frontLeft"; //Replace this with the left encode name (motor name in the same port)
+    public static String encoderRightName = "backRight";
+    public static String encoderCenterName = "backLeft";
+
+    // Where the robot's pose comes from. Read once when the Robot is built.
+    public static LocalizerType localizer = LocalizerType.THREE_WHEEL;
+
+    // Kalman filter for LocalizerType.FUSION. Standard deviations in cm / radians.
+    public static double fusionOdoXyVariancePerCm = 0.01;      // cm^2 added per cm driven
+    public static double fusionOdoHeadingVariancePerRad = 0.002; // rad^2 added per radian turned
+    public static double fusionImuHeadingStd = 0.02;
+    public static double fusionTagXyStd = 4;
+    public static double fusionTagHeadingStd = 0.08;
+    public static double fusionTagGate = 11.34;                 // chi-square 99%, 3 DOF
+    public static double fusionStartXyStd = 2;
+    public static double fusionStartHeadingStd = 0.05;
+    public static boolean fusionInitFromTag = true;             // take the first tag as the start pose if none was set
+    public static boolean logFusion = false;                    // write fusion_<time>.csv for FusionReplay
+
+    // OctoQuad localizer (LocalizerType.OCTOQUAD). See the SensorOctoQuadLocalization sample for tuning.
+    public static String octoQuadName = "octoquad";
+    public static int octoQuadPortX = 0;
+    public static int octoQuadPortY = 1;
+    public static boolean octoQuadReverseX = false;
+    public static boolean octoQuadReverseY = true;
+    public static double octoQuadTicksPerMmX = 19.89; // goBILDA 4-Bar pod
+    public static double octoQuadTicksPerMmY = 19.89;
+    public static double octoQuadTcpOffsetXMm = 0;
+    public static double octoQuadTcpOffsetYMm = 0;
+    public static double octoQuadImuScalar = 1.0;
+    public static int octoQuadVelocityIntervalMs = 25;
 
-    public static String encodeLeftName = ""; //Replace this with the left encode name (motor name in the same port)
-    public static String encoderRightName = "";
-    public static String encoderCenterName = "";
+    // SparkFun OTOS (LocalizerType.OTOS). Offset is the sensor's position on the robot (cm, degrees).
+    // Scalars are actual / reported after pushing the robot a known distance or spinning it 10 times.
+    public static String otosName = "sensor_otos";
+    public static double otosOffsetX = 0;
+    public static double otosOffsetY = 0;
+    public static double otosOffsetHeadingDeg = 0;
+    public static double otosLinearScalar = 1.0;
+    public static double otosAngularScalar = 1.0;
+
+    // Where the webcam sits on the robot (cm, degrees), needed for AprilTag robot poses
+    public static double cameraX = 0;
+    public static double cameraY = 0;
+    public static double cameraZ = 0;
+    public static double cameraYaw = 0;
+    public static double cameraPitch = -90;
+    public static double cameraRoll = 0;
+
+    // Flip to -1 so each wheel counts up when the robot moves forward (left for the center wheel)
+    public static int leftEncoderSign = 1;
+    public static int rightEncoderSign = 1;
+    public static int centerEncoderSign = 1;
 
     //Only tune this if you are using field Oriented
     public static double defaultLookAheadDistance = 5; //cm
 
     public static double FINISH_THRESHOLD_CM = 2.0; //cm
 
+    // Field-oriented heading: hold the path's waypoint headings while translating (mecanum), or turn to face the lookahead point
+    public static boolean holdPathHeading = true;
+    public static double heading_Kp = 1.2;        // power per radian of heading error
+    public static double heading_Kd = 0.08;       // power per rad/s of turn rate
+    public static double headingMaxPower = 0.5;
+
+    // Trajectory files with a profile: drive_kS/kV/kA turn its velocity into power, this corrects for lag behind it
+    public static double path_Kp = 0.02;          // power per cm behind the profile's position
+
+    // How many path segments past the current one the lookahead search looks at
+    public static int lookaheadSearchWindow = 12;
+
 
     // Only tune pid beneath if not using Robot Oriented
+    // Ki and Kd are per second (integral in ticks*s, derivative in ticks/s), so they hold at any loop rate
     public static double Kp = 0.6;
     public static double Kd = 0;
     public static double Ki = 0;
 
     // FIXED: Set strafe coefficients to non-zero values
     public static double strafe_Kp = 1.85;
-    public static double strafe_Ki = 0.00015;
+    public static double strafe_Ki = 0.0075; // was 0.00015 per iteration at roughly 50 Hz
     public static double strafe_Kd = 0;
 
+    // Motion profiles for drivePID and strafePID, in meters and seconds. Off falls back to plain PID on the error.
+    // kS is power to break friction, kV power per m/s, kA power per m/s^2. Kp/Ki/Kd above then correct the tracking error.
+    public static boolean useMotionProfile = true;
+    public static boolean sCurveProfile = true;   // jerk-limited, otherwise trapezoidal
+    public static double profileMaxVelocity = 1.0;
+    public static double profileMaxAcceleration = 1.5;
+    public static double profileMaxJerk = 8;
+    public static double drive_kS = 0.06;
+    public static double drive_kV = 0.55;
+    public static double drive_kA = 0.08;
+    public static double strafe_kS = 0.08;
+    public static double strafe_kV = 0.65;
+    public static double strafe_kA = 0.1;
+
+    // Rate the fixed-step control loops tick at
+    public static double controlLoopHz = 50;
+
     public static final double STEER_P = 0.02;
     public static final double MIN_POWER = 0.1;
 
     public static double timeoutSecs = 4;
+
+    // Read every encoder in one bulk transaction per control cycle. Turn off to compare loop rates.
+    public static boolean useBulkReads = true;
+
+    // Record per-phase loop timings, show them on telemetry and save them when the OpMode ends
+    public static boolean profileLoops = false;
+
+    // Drive motor writes smaller than this change are not sent to the hub
+    public static double motorWriteEpsilon = 0.005;
+
+    // Heading samples older than this are reported as stale
+    public static double imuStaleMs = 50;
+
+    // How often the telemetry pipeline formats and sends to the driver station
+    public static double telemetryHz = 10;
+
+    // Indexer moves: done within this many ticks, given up after the timeout or if stuck for stallMs
+    public static int indexerToleranceTicks = 5;
+    public static long indexerTimeoutMs = 1500;
+    public static long indexerStallMs = 250;
+    public static int indexerStallTicks = 2;
+
+    // Flywheel velocity loop, in ticks per second. kS and kV are feedforward power at flywheelNominalVoltage.
+    public static double flywheelTargetTicksPerSec = 2200;
+    public static double flywheelToleranceTicksPerSec = 60;
+    public static double flywheel_Kp = 0.002;
+    public static double flywheel_Ki = 0.001;
+    public static double flywheel_Kd = 0;
+    public static double flywheel_kS = 0.05;
+    public static double flywheel_kV = 0.00042;
+    public static double flywheel_kSync = 0.001;
+    public static double flywheelMaxIntegralPower = 0.2;
+    public static double flywheelNominalVoltage = 12.0;
+    // Blocking spin-ups give up after this long
+    public static long flywheelSpinUpTimeoutMs = 1500;
+
+    // Shoot sequence: lifter travel times are measured, the servo has no feedback
+    public static long lifterUpMs = 400;
+    public static long lifterDownMs = 300;
 }
\ No newline at end of file
@@ -2,5 +2,5 @@ package org.firstinspires.ftc.teamcode.Crawler.RobotOrient;
 
 // A simple interface to allow the lambda syntax
 public interface AnimationBuilder {
-    void build(HeadingTimeline timeline);
+    void build(HeadingTimeline.Builder timeline);
 }
@@ -1,42 +1,126 @@
 package org.firstinspires.ftc.teamcode.Crawler.RobotOrient;
 
-public class HeadingTimeline {
-    // Stores our keyframes: <Percentage, TargetHeading>
-    private final java.util.TreeMap<Double, Double> keyframes = new java.util.TreeMap<>();
-
-    // User calls this to add points
-    public HeadingTimeline at(double percentage, double heading) {
-        // Clamp percentage between 0.0 and 1.0
-        percentage = Math.max(0, Math.min(1.0, percentage));
-        keyframes.put(percentage, heading);
-        return this; // Allows chaining
+import java.util.Arrays;
+
+/**
+ * Target heading (degrees) by progress through a move (0.0 to 1.0), blended between keyframes.
+ * <p>
+ * Keyframes are fixed once built and kept in sorted primitive arrays. Lookups remember which
+ * pair of keyframes the last one fell between, so progress that only moves forward costs the
+ * same every call and nothing is allocated.
+ */
+public final class HeadingTimeline {
+    private final double[] keys;
+    private final double[] headings;
+    private int cursor = 0;
+
+    private HeadingTimeline(double[] keys, double[] headings) {
+        this.keys = keys;
+        this.headings = headings;
     }
 
-    // The Engine calls this to get the current target
-    public double getTarget(double progress, double startHeading) {
-        // Ensure we have a start point (0%) matching the robot's reality
-        if (!keyframes.containsKey(0.0)) {
-            keyframes.put(0.0, startHeading);
-        }
+    /**
+     * Run the builder's instructions and freeze the result.
+     * @param startHeading heading at 0% unless the builder sets one
+     */
+    public static HeadingTimeline build(AnimationBuilder animator, double startHeading) {
+        Builder builder = new Builder();
+        animator.build(builder);
+        return builder.build(startHeading);
+    }
 
-        // Find the two keyframes we are currently between
-        java.util.Map.Entry<Double, Double> floor = keyframes.floorEntry(progress);
-        java.util.Map.Entry<Double, Double> ceiling = keyframes.ceilingEntry(progress);
+    // The Engine calls this to get the current target
+    public double getTarget(double progress) {
+        // Past either end, hold the end keyframe
+        int last = keys.length - 1;
+        if (progress <= keys[0]) return headings[0];
+        if (progress >= keys[last]) return headings[last];
 
-        if (floor == null) return startHeading;
-        if (ceiling == null) return floor.getValue(); // We passed the last point
-        if (floor.equals(ceiling)) return floor.getValue(); // Exact match
+        // Find the two keyframes we are currently between, starting from last time's pair
+        if (progress < keys[cursor]) cursor = 0;
+        while (keys[cursor + 1] <= progress) cursor++;
+        if (keys[cursor] == progress) return headings[cursor]; // Exact match
 
         // Interpolate (Calculate the point in between)
-        double range = ceiling.getKey() - floor.getKey();
-        double progressInSegment = (progress - floor.getKey()) / range;
+        double range = keys[cursor + 1] - keys[cursor];
+        double progressInSegment = (progress - keys[cursor]) / range;
 
-        double angleDiff = ceiling.getValue() - floor.getValue();
+        double angleDiff = headings[cursor + 1] - headings[cursor];
 
         // Handle wrapping (e.g. 10 -> 350 should be -20 degrees, not +340)
         while (angleDiff > 180) angleDiff -= 360;
         while (angleDiff < -180) angleDiff += 360;
 
-        return floor.getValue() + (angleDiff * progressInSegment);
+        return headings[cursor] + (angleDiff * progressInSegment);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Collects keyframes for a {@link HeadingTimeline}. This is what an {@link AnimationBuilder} is handed.
+     */
+    public static class Builder {
+        private double[] keys = new double[8];
+        private double[] headings = new double[8];
+        private int count = 0;
+
+        // User calls this to add points
+        public Builder at(double percentage, double heading) {
+            // Clamp percentage between 0.0 and 1.0
+            percentage = Math.max(0, Math.min(1.0, percentage));
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+                headings = Arrays.copyOf(headings, count * 2);
+            }
+            keys[count] = percentage;
+            headings[count] = heading;
+            count++;
+            return this; // Allows chaining
+        }
+
+        /**
+         * Sort the keyframes, keeping the last heading given for a repeated percentage.
+         * @param startHeading heading at 0% if no keyframe was put there, so the move starts
+         *                     from where the robot is
+         */
+        public HeadingTimeline build(double startHeading) {
+            // Insertion sort: a handful of keyframes, usually already in order, and it's stable
+            double[] k = Arrays.copyOf(keys, count);
+            double[] h = Arrays.copyOf(headings, count);
+            for (int i = 1; i < count; i++) {
+                double key = k[i];
+                double heading = h[i];
+                int j = i - 1;
+                while (j >= 0 && k[j] > key) {
+                    k[j + 1] = k[j];
+                    h[j + 1] = h[j];
+                    j--;
+                }
+                k[j + 1] = key;
+                h[j + 1] = heading;
+            }
+
+            // Drop repeats (the later one wins) and add the start keyframe
+            boolean hasStart = count > 0 && k[0] == 0;
+            int n = hasStart ? 0 : 1;
+            double[] outKeys = new double[count + n];
+            double[] outHeadings = new double[count + n];
+            if (!hasStart) {
+                outKeys[0] = 0;
+                outHeadings[0] = startHeading;
+            }
+            for (int i = 0; i < count; i++) {
+                if (n > 0 && outKeys[n - 1] == k[i]) {
+                    outHeadings[n - 1] = h[i];
+                } else {
+                    outKeys[n] = k[i];
+                    outHeadings[n] = h[i];
+                    n++;
+                }
+            }
+            return new HeadingTimeline(Arrays.copyOf(outKeys, n), Arrays.copyOf(outHeadings, n));
+        }
     }
 }
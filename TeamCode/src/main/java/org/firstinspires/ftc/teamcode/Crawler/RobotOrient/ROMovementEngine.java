@@ -7,13 +7,18 @@ import static org.firstinspires.ftc.teamcode.Crawler.RobotConfig.strafe_Kd;
 import static org.firstinspires.ftc.teamcode.Crawler.RobotConfig.strafe_Ki;
 
 
-import com.qualcomm.hardware.rev.RevHubOrientationOnRobot;
 import com.qualcomm.robotcore.eventloop.opmode.LinearOpMode;
 import com.qualcomm.robotcore.hardware.DcMotor;
 import com.qualcomm.robotcore.hardware.IMU;
 import com.qualcomm.robotcore.util.ElapsedTime;
 
-import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.teamcode.Crawler.Control.ControlLoopScheduler;
+import org.firstinspires.ftc.teamcode.Crawler.Control.LoopController;
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.LoopProfiler;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.TelemetryPipeline;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.Localizer;
 import org.firstinspires.ftc.teamcode.Crawler.Robot;
 import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
 import org.firstinspires.ftc.teamcode.Vision.AprilTagWebcam;
@@ -36,14 +41,36 @@ public abstract class ROMovementEngine extends LinearOpMode {
     private final double cSide = 150;
 
     public Robot robot;
+    protected ControlLoopScheduler scheduler;
+    protected LoopProfiler profiler;
+    protected TelemetryPipeline telemetryPipeline;
+    protected Localizer localizer;
 
     public abstract void runPath() throws InterruptedException;
 
     @Override
     public void runOpMode() throws InterruptedException {
+        // Telemetry is formatted and sent off the control thread; loops only fill in slots
+        telemetryPipeline = new TelemetryPipeline(telemetry, RobotConfig.telemetryHz);
+
         aprilTagWebcam.init(hardwareMap, telemetry);
+        aprilTagWebcam.attachTelemetry(telemetryPipeline);
 
         robot = new Robot(hardwareMap);
+        localizer = robot.localizer; // picked by RobotConfig.localizer
+
+        // Every control loop runs at a fixed rate; the bulk read is the first thing in each tick
+        profiler = new LoopProfiler(RobotConfig.profileLoops);
+        telemetryPipeline.addProvider(profiler);
+        scheduler = new ControlLoopScheduler(RobotConfig.controlLoopHz);
+        scheduler.register(dt -> {
+            profiler.markLoop();
+            long t = profiler.start();
+            robot.bulkReader.update();
+            profiler.lap(LoopProfiler.SENSE, t);
+            robot.update();
+            return false;
+        });
 
         backLeft = hardwareMap.get(DcMotor.class, "backLeft");
         backRight = hardwareMap.get(DcMotor.class, "backRight");
@@ -56,19 +83,24 @@ public abstract class ROMovementEngine extends LinearOpMode {
 
         setMotorBehavior();
 
-        imu = hardwareMap.get(IMU.class, "imu");
-        imu.initialize(new IMU.Parameters(new RevHubOrientationOnRobot(
-                RevHubOrientationOnRobot.LogoFacingDirection.RIGHT,
-                RevHubOrientationOnRobot.UsbFacingDirection.UP)));
+        // Robot already initialized the IMU and is sampling it on a background thread
+        imu = robot.imu;
 
         resetOdometry();
-        imu.resetYaw();
+        robot.imuReader.resetYaw();
         waitForStart();
-        imu.resetYaw();
+        robot.imuReader.resetYaw();
 
-        if (opModeIsActive()) {
-            aprilTagWebcam.update();
-            runPath();
+        telemetryPipeline.start();
+        try {
+            if (opModeIsActive()) {
+                aprilTagWebcam.update();
+                runPath();
+            }
+        } finally {
+            robot.close();
+            telemetryPipeline.stop();
+            profiler.writeReport(getClass().getSimpleName());
         }
     }
 
@@ -99,18 +131,16 @@ public abstract class ROMovementEngine extends LinearOpMode {
             double secondAngleTurn = 180 - alpha;
             turnPID((int) secondAngleTurn);
 
-            telemetry.addData("turning Status", "completed");
-            telemetry.addData("firstTurnAngle", firstTurnAngle);
-            telemetry.addData("second angle", secondAngleTurn);
-            telemetry.addData("Bearing", theta);
-            telemetry.addData("Gamma", gamma);
-            telemetry.addData("Alpha", alpha);
-            telemetry.addData("Beta", beta);
-            telemetry.addData("B side", bSide);
-            telemetry.addData("A side", aSide);
-            telemetry.addData("C side", cSide);
-
-            telemetry.update();
+            telemetryPipeline.setText(telemetryPipeline.slot("turning Status", "%s"), "completed");
+            telemetryPipeline.set(telemetryPipeline.slot("firstTurnAngle", "%.1f"), firstTurnAngle);
+            telemetryPipeline.set(telemetryPipeline.slot("second angle", "%.1f"), secondAngleTurn);
+            telemetryPipeline.set(telemetryPipeline.slot("Bearing", "%.1f"), theta);
+            telemetryPipeline.set(telemetryPipeline.slot("Gamma", "%.1f"), gamma);
+            telemetryPipeline.set(telemetryPipeline.slot("Alpha", "%.1f"), alpha);
+            telemetryPipeline.set(telemetryPipeline.slot("Beta", "%.1f"), beta);
+            telemetryPipeline.set(telemetryPipeline.slot("B side", "%.1f"), bSide);
+            telemetryPipeline.set(telemetryPipeline.slot("A side", "%.1f"), aSide);
+            telemetryPipeline.set(telemetryPipeline.slot("C side", "%.1f"), cSide);
         }
 
         aprilTagWebcam.close();
@@ -147,66 +177,112 @@ public abstract class ROMovementEngine extends LinearOpMode {
      * @param targetAngle angle to turn to in degrees
      */
     public void drivePID(double targetMeters, int targetAngle) {
-        double targetTicks = targetMeters * TICKS_PER_METER;
+        final double targetTicks = targetMeters * TICKS_PER_METER;
 
         // 1. SAFE START: Calculate start position instead of resetting hardware
         // resetting hardware encoders can be slow/laggy in loops
-        double startPos = ((leftOdo.getCurrentPosition() + rightOdo.getCurrentPosition()) / 2.0);
+        robot.bulkReader.resetLoopTiming();
+        // (negated the same way as the position in the loop)
+        final double startPos = -robot.bulkReader.update().forwardTicks();
 
-        double error = targetTicks;
-        double lastError = 0;
-        double integral = 0;
+        // 2. PROFILE: the loop follows a moving setpoint instead of chasing the target from the start
+        final MotionProfile profile = buildProfile(targetMeters);
+        final double[] setpoint = new double[3];
 
-        // 2. TIMEOUT: Prevent infinite loops if sensors fail
-        ElapsedTime timer = new ElapsedTime();
+        // 3. TIMEOUT: Prevent infinite loops if sensors fail (counted from when the profile should be done)
+        final double timeoutSecs = RobotConfig.timeoutSecs + (profile == null ? 0 : profile.getDuration());
+        final ElapsedTime timer = new ElapsedTime();
         timer.reset();
 
-        while (opModeIsActive() && (timer.seconds() < RobotConfig.timeoutSecs) && Math.abs(error) > 50) {
-
-            // Calculate current distance traveled relative to start
-            double rawCurrentPos = ((leftOdo.getCurrentPosition() + rightOdo.getCurrentPosition()) / 2.0) * -1;
-            double currentPos = rawCurrentPos - startPos;
-
-            // 3. DEBUGGING: If this number goes NEGATIVE when driving FORWARD,
-            // you must reverse your encoder direction in the config or code.
-
-            error = targetTicks - currentPos;
-
-            double derivative = error - lastError;
-
-            // Integral anti-windup (only accumulate when close to target)
-            if (Math.abs(error) < (0.1 * TICKS_PER_METER)) {
-                integral += error;
-            } else {
-                integral = 0;
-            }
-
-            double power = (RobotConfig.Kp * (error / TICKS_PER_METER))
-                    + (RobotConfig.Ki * integral)
-                    + (RobotConfig.Kd * derivative);
-
-            // Steering logic
-            double currentYaw = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
-            double steer = angleWrap(targetAngle - currentYaw) * STEER_P;
-
-            // Clamp power
-            power = Math.max(-0.7, Math.min(0.7, power));
-
-            // Feedforward / Minimum power to overcome friction
-            if (Math.abs(power) < MIN_POWER && Math.abs(error) > 50) {
-                power = Math.signum(power) * MIN_POWER;
+        // Telemetry slots are registered up front so the loop only stores numbers
+        final int targetSlot = telemetryPipeline.slot("Target Ticks", "%.0f");
+        final int posSlot = telemetryPipeline.slot("Current Pos", "%.0f");
+        final int errorSlot = telemetryPipeline.slot("Error", "%.0f");
+        final int powerSlot = telemetryPipeline.slot("Power", "%.3f");
+        final int loopSlot = telemetryPipeline.slot("Loop Hz / Overruns", "%.1f / %.0f");
+        final int savedSlot = telemetryPipeline.slot("Writes saved/s", "%.0f");
+        final int imuSlot = telemetryPipeline.slot("IMU age ms", "%.1f");
+        final int staleSlot = telemetryPipeline.slot("WARNING: IMU reader is falling behind", null);
+
+        runControlLoop(new LoopController() {
+            double error = targetTicks;
+            double lastError = profile == null ? targetTicks : 0; // no derivative kick on the first tick
+            double integral = 0;
+            double elapsed = 0;
+
+            @Override
+            public boolean update(double dt) {
+                if (timer.seconds() >= timeoutSecs) return true;
+
+                long t = profiler.start();
+                HardwareSnapshot snapshot = robot.bulkReader.getLatest();
+
+                // Calculate current distance traveled relative to start
+                double rawCurrentPos = snapshot.forwardTicks() * -1;
+                double currentPos = rawCurrentPos - startPos;
+
+                // 4. DEBUGGING: If this number goes NEGATIVE when driving FORWARD,
+                // you must reverse your encoder direction in the config or code.
+
+                // PID works on the distance to the setpoint, the finish check on the distance to the target
+                elapsed += dt;
+                error = setpointTicks(profile, elapsed, targetTicks, setpoint) - currentPos;
+                double remaining = targetTicks - currentPos;
+
+                // Derivative and integral are per second, so the gains don't depend on loop speed
+                double derivative = (error - lastError) / dt;
+
+                // Integral anti-windup (only accumulate when close to target)
+                if (Math.abs(error) < (0.1 * TICKS_PER_METER)) {
+                    integral += error * dt;
+                } else {
+                    integral = 0;
+                }
+
+                double power = (RobotConfig.Kp * (error / TICKS_PER_METER))
+                        + (RobotConfig.Ki * integral)
+                        + (RobotConfig.Kd * derivative)
+                        + feedforward(setpoint, RobotConfig.drive_kS, RobotConfig.drive_kV, RobotConfig.drive_kA);
+
+                // Steering logic
+                double currentYaw = snapshot.yawDegrees;
+                double steer = angleWrap(targetAngle - currentYaw) * STEER_P;
+
+                // Clamp power
+                power = Math.max(-0.7, Math.min(0.7, power));
+
+                // Minimum power to overcome friction. kS does this while the profile runs; once it
+                // has ended the setpoint stands still, so the floor pushes the last few ticks in.
+                if (profile == null && Math.abs(power) < MIN_POWER && Math.abs(error) > 50) {
+                    power = Math.signum(power) * MIN_POWER;
+                } else if (profile != null && profile.isFinished(elapsed) && Math.abs(power) < MIN_POWER && Math.abs(remaining) > 50) {
+                    power = Math.signum(remaining) * MIN_POWER;
+                }
+
+                applyDrivePower(power, -steer);
+                lastError = error;
+                t = profiler.lap(LoopProfiler.CONTROL, t);
+                robot.driveOutput.flush();
+                t = profiler.lap(LoopProfiler.OUTPUT, t);
+
+                // 5. TELEMETRY: Essential for seeing WHY it won't stop
+                telemetryPipeline.set(targetSlot, targetTicks);
+                telemetryPipeline.set(posSlot, currentPos);
+                telemetryPipeline.set(errorSlot, remaining);
+                telemetryPipeline.set(powerSlot, power);
+                telemetryPipeline.set(loopSlot, scheduler.getLoopHz(), scheduler.getOverruns());
+                telemetryPipeline.set(savedSlot, robot.driveOutput.getSavedPerSecond());
+                telemetryPipeline.set(imuSlot, robot.imuReader.getAgeMs());
+                if (robot.imuReader.isStale()) {
+                    telemetryPipeline.show(staleSlot);
+                } else {
+                    telemetryPipeline.hide(staleSlot);
+                }
+                profiler.lap(LoopProfiler.TELEMETRY, t);
+
+                return Math.abs(remaining) <= 50 && (profile == null || profile.isFinished(elapsed));
             }
-
-            applyDrivePower(power, -steer);
-            lastError = error;
-
-            // 4. TELEMETRY: Essential for seeing WHY it won't stop
-            telemetry.addData("Target Ticks", targetTicks);
-            telemetry.addData("Current Pos", currentPos);
-            telemetry.addData("Error", error);
-            telemetry.addData("Power", power);
-            telemetry.update();
-        }
+        });
         stopRobot();
     }
 
@@ -217,47 +293,74 @@ public abstract class ROMovementEngine extends LinearOpMode {
      * @param targetAngle angle to turn to in degrees*/
 
     public void strafePID(double targetMeters, int targetAngle) {
-        double targetTicks = targetMeters * TICKS_PER_METER;
-        double error = targetTicks;
-        double lastError = 0;
-        double integral = 0;
-
+        final double targetTicks = targetMeters * TICKS_PER_METER;
         final int maxError = 50;
 
         resetOdometry();
+        robot.bulkReader.resetLoopTiming();
 
-        while (opModeIsActive() && Math.abs(error) > maxError) {
-            double currentPos =  centerOdo.getCurrentPosition();
-
-            //currentPos = currentPos * -1; // if the odometry pods are mounted backwards
-
-            error = targetTicks - currentPos;
+        final MotionProfile profile = buildProfile(targetMeters);
+        final double[] setpoint = new double[3];
 
-            // PID Logic
-            double derivative = error - lastError;
-            integral += error;
+        // Same timeout as drivePID, counted from when the profile should be done
+        final double timeoutSecs = RobotConfig.timeoutSecs + (profile == null ? 0 : profile.getDuration());
+        final ElapsedTime timer = new ElapsedTime();
+        timer.reset();
 
-            // Anti-windup cap
-            if (Math.abs(error) < (0.1 * TICKS_PER_METER)) { // Only use Integral when close
-                integral = Math.max(-20, Math.min(20, integral));
-            } else {
-                integral = 0;
+        runControlLoop(new LoopController() {
+            double error = targetTicks;
+            double lastError = profile == null ? targetTicks : 0;
+            double integral = 0;
+            double elapsed = 0;
+
+            @Override
+            public boolean update(double dt) {
+                if (timer.seconds() >= timeoutSecs) return true;
+
+                long t = profiler.start();
+                HardwareSnapshot snapshot = robot.bulkReader.getLatest();
+                double currentPos = snapshot.centerTicks;
+
+                //currentPos = currentPos * -1; // if the odometry pods are mounted backwards
+
+                elapsed += dt;
+                error = setpointTicks(profile, elapsed, targetTicks, setpoint) - currentPos;
+                double remaining = targetTicks - currentPos;
+
+                // PID Logic (per second)
+                double derivative = (error - lastError) / dt;
+                integral += error * dt;
+
+                // Anti-windup cap
+                if (Math.abs(error) < (0.1 * TICKS_PER_METER)) { // Only use Integral when close
+                    integral = Math.max(-0.4, Math.min(0.4, integral));
+                } else {
+                    integral = 0;
+                }
+
+                double power = (RobotConfig.strafe_Kp * (error / TICKS_PER_METER)) + (strafe_Ki * integral) + (strafe_Kd * derivative)
+                        + feedforward(setpoint, RobotConfig.strafe_kS, RobotConfig.strafe_kV, RobotConfig.strafe_kA);
+
+                // Steering with Angle Wrap
+                double currentYaw = -snapshot.yawDegrees;
+                double steer = angleWrap(currentYaw - targetAngle) * -STEER_P;
+
+                power = Math.max(-0.7, Math.min(0.7, power));
+                if (profile == null && Math.abs(power) < MIN_POWER) {
+                    power = Math.signum(power) * MIN_POWER;
+                } else if (profile != null && profile.isFinished(elapsed) && Math.abs(power) < MIN_POWER && Math.abs(remaining) > maxError) {
+                    power = Math.signum(remaining) * MIN_POWER; // settle in once the profile is done
+                }
+
+                applyStrafePower(power, steer);
+                lastError = error;
+                t = profiler.lap(LoopProfiler.CONTROL, t);
+                robot.driveOutput.flush();
+                profiler.lap(LoopProfiler.OUTPUT, t);
+
+                return Math.abs(remaining) <= maxError && (profile == null || profile.isFinished(elapsed));
             }
-
-            double power = (RobotConfig.strafe_Kp * (error / TICKS_PER_METER)) + (strafe_Ki * integral) + (strafe_Kd * derivative);
-
-            // Steering with Angle Wrap
-            double currentYaw = -imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
-            double steer = angleWrap(currentYaw - targetAngle) * -STEER_P;
-
-            power = Math.max(-0.7, Math.min(0.7, power));
-            if (Math.abs(power) < MIN_POWER) power = Math.signum(power) * MIN_POWER;
-
-            applyStrafePower(power, steer);
-            lastError = error;
-
-
-        }
+        });
         stopRobot();
     }
 
@@ -267,13 +370,19 @@ public abstract class ROMovementEngine extends LinearOpMode {
 
     public void turnPID(int targetAngle) {
         // 1. Calculate error
-        double currentYaw = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
-        double error = angleWrap(targetAngle - currentYaw);
+        robot.bulkReader.resetLoopTiming();
+        double startYaw = robot.bulkReader.update().yawDegrees;
+        if (Math.abs(angleWrap(targetAngle - startYaw)) <= 1.0) return;
+
+        final int targetSlot = telemetryPipeline.slot("Target", "%.0f");
+        final int headingSlot = telemetryPipeline.slot("Heading", "%.1f");
 
         // 2. Loop until error is small (e.g., < 1 degree)
-        while (opModeIsActive() && Math.abs(error) > 1.0) {
-            currentYaw = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
-            error = angleWrap(targetAngle - currentYaw);
+        runControlLoop(dt -> {
+            long t = profiler.start();
+            double currentYaw = robot.bulkReader.getLatest().yawDegrees;
+            double error = angleWrap(targetAngle - currentYaw);
+            if (Math.abs(error) <= 1.0) return true;
 
             // Simple P-Control for turning
             // We use a higher P value here because turning needs more punch than steering correction
@@ -285,37 +394,43 @@ public abstract class ROMovementEngine extends LinearOpMode {
 
             // Apply power (Turn Right = Left Forward, Right Back)
             // Note: Check your motor directions!
-            backLeft.setPower(-turnPower);
-            frontLeft.setPower(-turnPower);
-            backRight.setPower(turnPower);
-            frontRight.setPower(turnPower);
-
-            telemetry.addData("Target", targetAngle);
-            telemetry.addData("Heading", currentYaw);
-        }
+            robot.driveOutput.set(-turnPower, turnPower, -turnPower, turnPower);
+            t = profiler.lap(LoopProfiler.CONTROL, t);
+            robot.driveOutput.flush();
+            profiler.lap(LoopProfiler.OUTPUT, t);
+
+            telemetryPipeline.set(targetSlot, targetAngle);
+            telemetryPipeline.set(headingSlot, currentYaw);
+            return false;
+        });
         stopRobot();
     }
 
     @Experimental("This is only a prototype, may be removed/moved to new pure pursuit algorithm")
     public void arc(double meters, double maxPower, AnimationBuilder animator) {
         double targetTicks = meters * TICKS_PER_METER;
-        double startHeading = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
+        robot.bulkReader.resetLoopTiming();
+        double startHeading = robot.bulkReader.update().yawDegrees;
 
         // 1. Setup the Timeline
-        HeadingTimeline timeline = new HeadingTimeline();
-        animator.build(timeline); // Execute the user's instructions
+        HeadingTimeline timeline = HeadingTimeline.build(animator, startHeading); // Execute the user's instructions
 
         resetOdometry();
 
-        while (opModeIsActive()) {
-            double currentPos = (leftOdo.getCurrentPosition() + rightOdo.getCurrentPosition()) / 2.0;
+        final int progressSlot = telemetryPipeline.slot("Progress", "%.2f");
+        final int headingSlot = telemetryPipeline.slot("Target Head", "%.1f");
+
+        runControlLoop(dt -> {
+            long t = profiler.start();
+            HardwareSnapshot snapshot = robot.bulkReader.getLatest();
+            double currentPos = snapshot.forwardTicks();
 
             // Calculate Progress (0.0 to 1.0)
             double progress = Math.abs(currentPos / targetTicks);
-            if (progress >= 1.0) break;
+            if (progress >= 1.0) return true;
 
             // 2. ASK THE TIMELINE FOR HEADING
-            double targetHeading = timeline.getTarget(progress, startHeading);
+            double targetHeading = timeline.getTarget(progress);
 
             // Standard Drive Logic
             double error = Math.abs(targetTicks) - Math.abs(currentPos);
@@ -324,27 +439,68 @@ public abstract class ROMovementEngine extends LinearOpMode {
             power = Math.max(-maxPower, Math.min(maxPower, power));
             if (Math.abs(power) < MIN_POWER) power = Math.signum(power) * MIN_POWER;
 
-            double currentYaw = imu.getRobotYawPitchRollAngles().getYaw(AngleUnit.DEGREES);
+            double currentYaw = snapshot.yawDegrees;
             double steer = angleWrap(currentYaw - targetHeading) * -STEER_P;
 
             applyDrivePower(power, steer);
+            t = profiler.lap(LoopProfiler.CONTROL, t);
+            robot.driveOutput.flush();
+            t = profiler.lap(LoopProfiler.OUTPUT, t);
 
             // Telemetry for debugging
-            telemetry.addData("Progress", "%.2f", progress);
-            telemetry.addData("Target Head", "%.1f", targetHeading);
-            telemetry.update();
-        }
+            telemetryPipeline.set(progressSlot, progress);
+            telemetryPipeline.set(headingSlot, targetHeading);
+            profiler.lap(LoopProfiler.TELEMETRY, t);
+            return false;
+        });
         stopRobot();
     }
 
     // --- HELPERS ---
 
+    /**
+     * Profile for a straight move, built once before the loop starts. Null when profiles are turned off.
+     */
+    private MotionProfile buildProfile(double meters) {
+        if (!RobotConfig.useMotionProfile) return null;
+        double sampleDt = 1.0 / RobotConfig.controlLoopHz;
+        if (RobotConfig.sCurveProfile) {
+            return MotionProfile.sCurve(meters, RobotConfig.profileMaxVelocity, RobotConfig.profileMaxAcceleration,
+                    RobotConfig.profileMaxJerk, sampleDt);
+        }
+        return MotionProfile.trapezoid(meters, RobotConfig.profileMaxVelocity, RobotConfig.profileMaxAcceleration, sampleDt);
+    }
+
+    // Where the move should be by now, in ticks. Without a profile that's the target itself, standing still.
+    private static double setpointTicks(MotionProfile profile, double elapsed, double targetTicks, double[] setpoint) {
+        if (profile == null) {
+            setpoint[0] = targetTicks / TICKS_PER_METER;
+            setpoint[1] = 0;
+            setpoint[2] = 0;
+            return targetTicks;
+        }
+        profile.sample(elapsed, setpoint);
+        return setpoint[0] * TICKS_PER_METER;
+    }
+
+    // Power the setpoint's velocity and acceleration need on their own; zero when standing still
+    private static double feedforward(double[] setpoint, double kS, double kV, double kA) {
+        return Math.signum(setpoint[1]) * kS + kV * setpoint[1] + kA * setpoint[2];
+    }
+
+    /**
+     * Run a controller on the fixed-rate scheduler until it reports done or the OpMode stops.
+     */
+    protected void runControlLoop(LoopController controller) {
+        scheduler.runUntilDone(controller, this::opModeIsActive);
+    }
+
+    // Both apply* helpers only stage powers; the calling loop flushes robot.driveOutput once per cycle
+
     private void applyDrivePower(double p, double s) {
         // p = forward power, s = steer (turning)
-        frontLeft.setPower(p + s);
-        backLeft.setPower(p + s);
-        frontRight.setPower(p - s); // Right side must be opposite of Left
-        backRight.setPower(p - s); // Right side must be opposite of Left
+        // Right side must be opposite of Left
+        robot.driveOutput.set(p + s, p - s, p + s, p - s);
     }
 
     public void applyStrafePower(double strafe, double steer) {
@@ -366,15 +522,11 @@ public abstract class ROMovementEngine extends LinearOpMode {
             br /= max;
         }
 
-        frontLeft.setPower(fl);
-        frontRight.setPower(fr);
-        backLeft.setPower(bl);
-        backRight.setPower(br);
+        robot.driveOutput.set(fl, fr, bl, br);
     }
 
     private void stopRobot() {
-        backLeft.setPower(0); backRight.setPower(0);
-        frontLeft.setPower(0); frontRight.setPower(0);
+        robot.driveOutput.write(0, 0, 0, 0);
         sleep(100);
     }
 
@@ -385,6 +537,7 @@ public abstract class ROMovementEngine extends LinearOpMode {
         leftOdo.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         rightOdo.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         centerOdo.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        localizer.resetReference(); // the pose stays, only the encoder zero moved
     }
 
     private void setMotorBehavior() {
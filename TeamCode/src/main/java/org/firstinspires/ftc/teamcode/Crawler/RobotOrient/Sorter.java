@@ -9,12 +9,32 @@ public class Sorter {
 
     int tries = 3;
     public static Robot robot;
+    private final boolean ownsRobot;
 
+    /**
+     * Builds its own {@link Robot}; call {@link #close()} when done so its IMU thread stops.
+     */
     public Sorter(HardwareMap hwMap) {
         robot = new Robot(hwMap);
+        ownsRobot = true;
     }
 
-    public void getBall(BALLCOLOR ballcolor) {
+    /**
+     * Shares the OpMode's robot, which stays the OpMode's to close.
+     */
+    public Sorter(Robot robot) {
+        Sorter.robot = robot;
+        ownsRobot = false;
+    }
+
+    /**
+     * Stop the robot's background threads if this sorter built it.
+     */
+    public void close() {
+        if (ownsRobot) robot.close();
+    }
+
+    public void getBall(BALLCOLOR ballcolor) throws InterruptedException {
         int temp = tries;
         if(tries <= 0) return;
         if(!(getDetectedColor() == ballcolor)) {
@@ -28,7 +48,7 @@ public class Sorter {
         // and then go the the shooter position
         robot.indexer.setTargetPosition(0); //TODO tune this
         robot.lifter.setPosition(0.5); //TODO tune this
-        robot.activateShooters(false);
+        robot.spinUpShooters(); // ticks the robot, so the indexer move and flywheels actually run
 
     }
 
@@ -0,0 +1,192 @@
+package org.firstinspires.ftc.teamcode.Crawler.Subsystems;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.TelemetryPipeline;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+
+/**
+ * Closed-loop velocity control for the two shooter flywheels.
+ * <p>
+ * Power = kS + kV * target (feedforward) + PID on the average wheel speed, scaled by
+ * nominal / battery voltage so a drained battery spins the wheels just as fast. A sync term
+ * pushes the faster wheel down and the slower one up so both sides hit the ball the same.
+ * Velocities come from the bulk read, so {@link #update()} has to run after it.
+ * <p>
+ * Also measures how long the wheels take to get back to speed after a shot pulls them
+ * down, which is what the shoot sequence actually waits on.
+ */
+public class Flywheel implements TelemetryPipeline.Provider {
+    private static final long VOLTAGE_PERIOD_NANOS = 250_000_000L; // the hub voltage is not in the bulk read
+
+    private final DcMotorEx left, right;
+    private final VoltageSensor battery;
+
+    private double target = 0;
+    private double leftVelocity, rightVelocity;
+    private double integral = 0;
+    private double integralTarget = 0; // the target the integral was built up at
+    private double lastError = 0;
+    private long lastNanos = 0;
+
+    private double voltage;
+    private long lastVoltageNanos = 0;
+
+    private boolean atSpeed = false;
+    private long targetSetNanos;
+    private long dropNanos = 0;
+    private double spinUpMs = 0;
+    private double lastRecoveryMs = 0;
+    private double maxRecoveryMs = 0;
+    private int recoveries = 0;
+
+    private int targetSlot = -1, recoverySlot;
+
+    public Flywheel(DcMotorEx left, DcMotorEx right, VoltageSensor battery) {
+        this.left = left;
+        this.right = right;
+        this.battery = battery;
+        this.voltage = RobotConfig.flywheelNominalVoltage;
+
+        // We close the loop ourselves, the hub's own velocity PID would fight it
+        left.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        right.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+    }
+
+    /**
+     * Set the wheel speed in ticks per second. 0 stops them.
+     * <p>
+     * Stopping and restarting at the same speed keeps the integral, which was learned at that speed.
+     */
+    public void setTarget(double ticksPerSecond) {
+        if (ticksPerSecond == target) return;
+        if (ticksPerSecond != 0 && ticksPerSecond != integralTarget) {
+            integral = 0;
+            integralTarget = ticksPerSecond;
+        }
+        target = ticksPerSecond;
+        lastNanos = 0; // update() isn't integrating while stopped, so restart dt from the next one
+        atSpeed = false;
+        dropNanos = 0;
+        spinUpMs = 0;
+        targetSetNanos = System.nanoTime();
+    }
+
+    public double getTarget() {
+        return target;
+    }
+
+    /** Run one step of the velocity loop. Call once per loop, after the bulk read. */
+    public void update() {
+        long now = System.nanoTime();
+        leftVelocity = left.getVelocity();
+        rightVelocity = right.getVelocity();
+
+        if (target == 0) {
+            left.setPower(0);
+            right.setPower(0);
+            atSpeed = false;
+            return;
+        }
+
+        // 1. Battery voltage, read slowly and smoothed
+        if (now - lastVoltageNanos >= VOLTAGE_PERIOD_NANOS) {
+            double reading = battery.getVoltage();
+            if (reading > 1) voltage += 0.5 * (reading - voltage);
+            lastVoltageNanos = now;
+        }
+
+        // 2. PID on the average speed
+        double average = (leftVelocity + rightVelocity) / 2;
+        double error = target - average;
+        double dt = lastNanos == 0 ? 0 : (now - lastNanos) / 1e9;
+        double derivative = 0;
+        if (dt > 0) {
+            integral += error * dt;
+            derivative = (error - lastError) / dt;
+        }
+        // Keep the integral from winding up during spin-up
+        double maxIntegral = RobotConfig.flywheel_Ki > 0 ? RobotConfig.flywheelMaxIntegralPower / RobotConfig.flywheel_Ki : 0;
+        integral = Math.max(-maxIntegral, Math.min(maxIntegral, integral));
+        lastError = error;
+        lastNanos = now;
+
+        double feedback = RobotConfig.flywheel_Kp * error
+                + RobotConfig.flywheel_Ki * integral
+                + RobotConfig.flywheel_Kd * derivative;
+        double feedforward = Math.signum(target) * RobotConfig.flywheel_kS + RobotConfig.flywheel_kV * target;
+
+        // 3. Sync: split the difference between the two wheels
+        double sync = RobotConfig.flywheel_kSync * (leftVelocity - rightVelocity) / 2;
+
+        double scale = RobotConfig.flywheelNominalVoltage / voltage;
+        double base = feedforward + feedback;
+        left.setPower(clip((base - sync) * scale));
+        right.setPower(clip((base + sync) * scale));
+
+        // 4. Spin-up and recovery tracking
+        boolean inTolerance = Math.abs(target - leftVelocity) <= RobotConfig.flywheelToleranceTicksPerSec
+                && Math.abs(target - rightVelocity) <= RobotConfig.flywheelToleranceTicksPerSec;
+
+        if (inTolerance && !atSpeed) {
+            if (spinUpMs == 0) {
+                spinUpMs = (now - targetSetNanos) / 1e6;
+            } else if (dropNanos != 0) {
+                lastRecoveryMs = (now - dropNanos) / 1e6;
+                maxRecoveryMs = Math.max(maxRecoveryMs, lastRecoveryMs);
+                recoveries++;
+            }
+            dropNanos = 0;
+        } else if (!inTolerance && atSpeed) {
+            dropNanos = now;
+        }
+        atSpeed = inTolerance;
+    }
+
+    /** Both wheels are within {@link RobotConfig#flywheelToleranceTicksPerSec} of the target. */
+    public boolean atSpeed() {
+        return atSpeed;
+    }
+
+    public double getLeftVelocity() {
+        return leftVelocity;
+    }
+
+    public double getRightVelocity() {
+        return rightVelocity;
+    }
+
+    /** Time from setting the target to first reaching it. 0 until it gets there. */
+    public double getSpinUpMs() {
+        return spinUpMs;
+    }
+
+    /** Time the wheels took to get back to speed after the last shot. */
+    public double getLastRecoveryMs() {
+        return lastRecoveryMs;
+    }
+
+    public double getMaxRecoveryMs() {
+        return maxRecoveryMs;
+    }
+
+    public int getRecoveries() {
+        return recoveries;
+    }
+
+    @Override
+    public void publish(TelemetryPipeline pipeline) {
+        if (targetSlot < 0) {
+            targetSlot = pipeline.slot("Flywheel target/left/right", "%.0f / %.0f / %.0f");
+            recoverySlot = pipeline.slot("Flywheel spin-up/recovery/max ms", "%.0f / %.0f / %.0f");
+        }
+        pipeline.set(targetSlot, target, leftVelocity, rightVelocity);
+        pipeline.set(recoverySlot, spinUpMs, lastRecoveryMs, maxRecoveryMs);
+    }
+
+    private static double clip(double power) {
+        return Math.max(-1, Math.min(1, power));
+    }
+}
@@ -0,0 +1,144 @@
+package org.firstinspires.ftc.teamcode.Crawler.Subsystems;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.IndexerRotation;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs indexer moves without blocking the caller.
+ * <p>
+ * Requests are queued and return a future that completes with a {@link Result}. Nothing
+ * happens unless {@link #update()} is called every loop (after the bulk read). A move that
+ * takes longer than {@link RobotConfig#indexerTimeoutMs}, or makes no progress for
+ * {@link RobotConfig#indexerStallMs}, is stopped and the rest of the queue is cancelled,
+ * since the slot positions can't be trusted anymore.
+ */
+public class IndexerController {
+    public enum Result {
+        COMPLETED,
+        TIMED_OUT,
+        STALLED,
+        CANCELLED
+    }
+
+    private static class Move {
+        final boolean absolute;
+        final int ticks;
+        final double power;
+        final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        Move(boolean absolute, int ticks, double power) {
+            this.absolute = absolute;
+            this.ticks = ticks;
+            this.power = power;
+        }
+    }
+
+    private final DcMotor indexer;
+    private final double countsPerDegree;
+    private final Deque<Move> queue = new ArrayDeque<>();
+
+    private Move active;
+    private int target;
+    private long startNanos;
+    private long lastProgressNanos;
+    private int lastProgressPosition;
+
+    public IndexerController(DcMotor indexer, double countsPerDegree) {
+        this.indexer = indexer;
+        this.countsPerDegree = countsPerDegree;
+    }
+
+    /** Queue a relative rotation. */
+    public CompletableFuture<Result> rotate(double degrees, IndexerRotation direction, double power) {
+        int ticks = (int) (degrees * countsPerDegree);
+        if (direction == IndexerRotation.CLOCKWISE) ticks = -ticks;
+        return enqueue(new Move(false, ticks, power));
+    }
+
+    /** Queue a move to an absolute encoder position. */
+    public CompletableFuture<Result> moveTo(int targetTicks, double power) {
+        return enqueue(new Move(true, targetTicks, power));
+    }
+
+    private CompletableFuture<Result> enqueue(Move move) {
+        queue.addLast(move);
+        if (active == null) startNext();
+        return move.future;
+    }
+
+    /** Advance the active move. Call once per loop. */
+    public void update() {
+        if (active == null) return;
+
+        long now = System.nanoTime();
+        int position = indexer.getCurrentPosition();
+
+        if (Math.abs(target - position) <= RobotConfig.indexerToleranceTicks) {
+            finish(Result.COMPLETED);
+            startNext();
+            return;
+        }
+
+        if (now - startNanos > RobotConfig.indexerTimeoutMs * 1_000_000L) {
+            fault(Result.TIMED_OUT);
+            return;
+        }
+
+        if (Math.abs(position - lastProgressPosition) >= RobotConfig.indexerStallTicks) {
+            lastProgressPosition = position;
+            lastProgressNanos = now;
+        } else if (now - lastProgressNanos > RobotConfig.indexerStallMs * 1_000_000L) {
+            fault(Result.STALLED);
+        }
+    }
+
+    /** Stop the indexer and cancel everything queued. */
+    public void cancel() {
+        fault(Result.CANCELLED);
+    }
+
+    /** True while a move is running or queued. */
+    public boolean isBusy() {
+        return active != null || !queue.isEmpty();
+    }
+
+    private void startNext() {
+        Move move = queue.pollFirst();
+        if (move == null) return;
+
+        int current = indexer.getCurrentPosition();
+        target = move.absolute ? move.ticks : current + move.ticks;
+
+        indexer.setTargetPosition(target);
+        indexer.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        indexer.setPower(move.power);
+
+        active = move;
+        startNanos = System.nanoTime();
+        lastProgressNanos = startNanos;
+        lastProgressPosition = current;
+    }
+
+    private void finish(Result result) {
+        indexer.setPower(0);
+        indexer.setMode(DcMotor.RunMode.RUN_USING_ENCODER);
+
+        Move done = active;
+        active = null;
+        if (done != null) done.future.complete(result);
+    }
+
+    private void fault(Result result) {
+        finish(result);
+        Move move;
+        while ((move = queue.pollFirst()) != null) {
+            move.future.complete(Result.CANCELLED);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package org.firstinspires.ftc.teamcode.Crawler.Subsystems;
+
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.TelemetryPipeline;
+import org.firstinspires.ftc.teamcode.Crawler.Robot;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.IndexerRotation;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The three-ball shoot routine as a non-blocking state machine.
+ * <p>
+ * Each step moves on as soon as its condition is met (flywheels ready, lifter travel time
+ * elapsed, indexer move finished). The old fixed sleeps are kept only as upper bounds, so a
+ * missing or slow signal can never make it take longer than before. Per-shot phase times are
+ * kept for tuning and published through a {@link TelemetryPipeline}.
+ */
+public class ShootSequence implements TelemetryPipeline.Provider {
+    public enum Phase {
+        IDLE,
+        ALIGN,
+        SPIN_UP,
+        LIFT,
+        LOWER,
+        INDEX,
+        REALIGN
+    }
+
+    public static final int SHOTS = 3;
+    private static final double INDEX_ANGLE = 120; // 3 slots = 360 / 3 = 120 degrees
+
+    // Upper bounds, taken from the old fixed sleeps
+    private static final long FIRST_SPIN_UP_TIMEOUT_MS = 3000;
+    private static final long SPIN_UP_TIMEOUT_MS = 1500;
+    private static final long LIFT_TIMEOUT_MS = 2000;
+    private static final long LOWER_TIMEOUT_MS = 500;
+
+    // Columns of the per-shot timing table
+    private static final int T_SPIN_UP = 0;
+    private static final int T_LIFT = 1;
+    private static final int T_LOWER = 2;
+    private static final int T_INDEX = 3;
+
+    private final Robot robot;
+    private final double[][] phaseMs = new double[SHOTS][4];
+    private final int[] shotSlots = new int[SHOTS];
+    private int totalSlot = -1;
+
+    private Phase phase = Phase.IDLE;
+    private int shot = 0;
+    private long phaseStartNanos;
+    private long sequenceStartNanos;
+    private double totalMs = 0;
+    private CompletableFuture<IndexerController.Result> indexerMove;
+    private CompletableFuture<Boolean> result = CompletableFuture.completedFuture(true);
+
+    public ShootSequence(Robot robot) {
+        this.robot = robot;
+    }
+
+    /**
+     * Start shooting. Does nothing if a sequence is already running.
+     * @return completes with true after all shots, false if it was aborted
+     */
+    public CompletableFuture<Boolean> start() {
+        if (isRunning()) return result;
+
+        for (double[] row : phaseMs) Arrays.fill(row, 0);
+        result = new CompletableFuture<>();
+        shot = 0;
+        sequenceStartNanos = System.nanoTime();
+
+        // move from gobble indexer alignment to shooting alignment
+        indexerMove = robot.rotateIndexer(60, IndexerRotation.CLOCKWISE);
+        enter(Phase.ALIGN);
+        return result;
+    }
+
+    /** Advance the sequence. Called from {@link Robot#update()}. */
+    public void update() {
+        switch (phase) {
+            case IDLE:
+                return;
+
+            case ALIGN:
+                if (!indexerMove.isDone()) return;
+                if (indexerFailed()) return;
+                robot.activateShooters(false);
+                enter(Phase.SPIN_UP);
+                return;
+
+            case SPIN_UP: {
+                long timeout = shot == 0 ? FIRST_SPIN_UP_TIMEOUT_MS : SPIN_UP_TIMEOUT_MS;
+                if (!robot.shootersReady() && elapsedMs() < timeout) return;
+                phaseMs[shot][T_SPIN_UP] = elapsedMs();
+                robot.lifter.setPosition(-0.8);
+                enter(Phase.LIFT);
+                return;
+            }
+
+            case LIFT:
+                // The lifter servo has no feedback, so "done" is its measured travel time
+                if (elapsedMs() < Math.min(RobotConfig.lifterUpMs, LIFT_TIMEOUT_MS)) return;
+                phaseMs[shot][T_LIFT] = elapsedMs();
+                robot.lifter.setPosition(1);
+                enter(Phase.LOWER);
+                return;
+
+            case LOWER:
+                if (elapsedMs() < Math.min(RobotConfig.lifterDownMs, LOWER_TIMEOUT_MS)) return;
+                phaseMs[shot][T_LOWER] = elapsedMs();
+
+                if (shot == SHOTS - 1) {
+                    finishShot();
+                    robot.activateShooters(true);
+                    indexerMove = robot.realignIndexer();
+                    enter(Phase.REALIGN);
+                } else {
+                    indexerMove = robot.rotateIndexer(INDEX_ANGLE, IndexerRotation.CLOCKWISE);
+                    enter(Phase.INDEX);
+                }
+                return;
+
+            case INDEX:
+                if (!indexerMove.isDone()) return;
+                phaseMs[shot][T_INDEX] = elapsedMs();
+                if (indexerFailed()) return;
+                finishShot();
+                shot++;
+                enter(Phase.SPIN_UP);
+                return;
+
+            case REALIGN:
+                if (!indexerMove.isDone()) return;
+                totalMs = (System.nanoTime() - sequenceStartNanos) / 1e6;
+                RobotLog.ii("ShootSequence", "Sequence done in %.0f ms", totalMs);
+                enter(Phase.IDLE);
+                result.complete(true);
+                return;
+        }
+    }
+
+    /** Stop everything and give up on the remaining shots. */
+    public void cancel() {
+        if (!isRunning()) return;
+        abort("cancelled");
+    }
+
+    public boolean isRunning() {
+        return phase != Phase.IDLE;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Time spent in a phase during a shot, in milliseconds.
+     * @param phase one of SPIN_UP, LIFT, LOWER or INDEX
+     */
+    public double getPhaseMs(int shot, Phase phase) {
+        switch (phase) {
+            case SPIN_UP: return phaseMs[shot][T_SPIN_UP];
+            case LIFT: return phaseMs[shot][T_LIFT];
+            case LOWER: return phaseMs[shot][T_LOWER];
+            case INDEX: return phaseMs[shot][T_INDEX];
+            default: return 0;
+        }
+    }
+
+    /** Wall time of the last complete sequence, in milliseconds. */
+    public double getTotalMs() {
+        return totalMs;
+    }
+
+    @Override
+    public void publish(TelemetryPipeline pipeline) {
+        if (totalSlot < 0) {
+            for (int i = 0; i < SHOTS; i++) {
+                shotSlots[i] = pipeline.slot("Shot " + (i + 1) + " spin/lift/lower/index ms", "%.0f / %.0f / %.0f / %.0f");
+            }
+            totalSlot = pipeline.slot("Shoot sequence ms", "%.0f");
+        }
+        for (int i = 0; i < SHOTS; i++) {
+            double[] row = phaseMs[i];
+            pipeline.set(shotSlots[i], row[T_SPIN_UP], row[T_LIFT], row[T_LOWER], row[T_INDEX]);
+        }
+        pipeline.set(totalSlot, totalMs);
+    }
+
+    private boolean indexerFailed() {
+        IndexerController.Result moveResult = indexerMove.getNow(IndexerController.Result.CANCELLED);
+        if (moveResult == IndexerController.Result.COMPLETED) return false;
+        abort("indexer " + moveResult);
+        return true;
+    }
+
+    private void abort(String reason) {
+        RobotLog.ww("ShootSequence", "Aborted during %s (shot %d): %s", phase, shot + 1, reason);
+        robot.activateShooters(true);
+        robot.lifter.setPosition(1);
+        robot.indexerController.cancel();
+        enter(Phase.IDLE);
+        result.complete(false);
+    }
+
+    private void finishShot() {
+        double[] row = phaseMs[shot];
+        RobotLog.ii("ShootSequence", "Shot %d: spin-up %.0f, lift %.0f, lower %.0f, index %.0f ms",
+                shot + 1, row[T_SPIN_UP], row[T_LIFT], row[T_LOWER], row[T_INDEX]);
+    }
+
+    private void enter(Phase next) {
+        phase = next;
+        phaseStartNanos = System.nanoTime();
+    }
+
+    private double elapsedMs() {
+        return (System.nanoTime() - phaseStartNanos) / 1e6;
+    }
+}
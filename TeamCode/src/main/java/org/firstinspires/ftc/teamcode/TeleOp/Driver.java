@@ -1,6 +1,7 @@
 package org.firstinspires.ftc.teamcode.TeleOp;
 
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.LoopProfiler;
 import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.ROMovementEngine;
 import org.firstinspires.ftc.teamcode.Crawler.RobotOrient.Team;
 import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
@@ -12,15 +13,37 @@ public class Driver extends ROMovementEngine {
     private boolean gobbleOn = false;
     private boolean lastLeftBumper = false;
     private boolean lastAPress = false;
+    private boolean lastDpadUp = false;
+    private boolean lastTriangle = false;
+
+    private int alphaSlot, gobblerSlot, loopSlot, savedSlot, staleSlot, poseSlot;
 
     @Override
     public void runPath() throws InterruptedException {
         // Since MovementEngine calls runPath() inside runOpMode(),
         // the camera and robot are already initialized here.
 
+        alphaSlot = telemetryPipeline.slot("Alpha Sensor", "%.0f");
+        gobblerSlot = telemetryPipeline.slot("Gobbler State", "%s");
+        loopSlot = telemetryPipeline.slot("Loop Hz", "%.1f");
+        savedSlot = telemetryPipeline.slot("Writes saved/s", "%.0f");
+        poseSlot = telemetryPipeline.slot("Pose x/y/heading", "%.1f cm, %.1f cm, %.1f°");
+        staleSlot = telemetryPipeline.slot("WARNING: IMU reader is falling behind", null);
+        telemetryPipeline.line("Christian likes feet");
+        telemetryPipeline.addProvider(robot.shootRoutine);
+        telemetryPipeline.addProvider(robot.flywheel);
+
         while (opModeIsActive()) {
+            // 0. ONE BULK READ PER LOOP
+            profiler.markLoop();
+            long t = profiler.start();
+            robot.bulkReader.update();
+            robot.update();
+            t = profiler.lap(LoopProfiler.SENSE, t);
+
             // 1. VISION UPDATE & TELEMETRY
             aprilTagWebcam.update();
+            robot.addTagDetections(aprilTagWebcam.getDetectedTags());
             AprilTagDetection id20 = aprilTagWebcam.getTagBySpecificId(20);
             if (id20 != null) {
                 aprilTagWebcam.displayDetectionTelemetry(id20);
@@ -35,6 +58,7 @@ public class Driver extends ROMovementEngine {
             double frontRightPower = rightY - rightX;
             double backLeftPower = leftY - leftX;
             double backRightPower = rightY + rightX;
+            t = profiler.lap(LoopProfiler.CONTROL, t);
 
             robot.powerDriveTrain(-frontLeftPower, -frontRightPower, -backLeftPower, -backRightPower);
 
@@ -49,8 +73,11 @@ public class Driver extends ROMovementEngine {
 
             // Shooter (Hold for Active)
             // Note: Keeping your original "!gamepad2.right_bumper" logic
+            // The shoot sequence owns the flywheels while it runs
             boolean shooterButtonHeld = gamepad2.right_bumper;
-            robot.activateShooters(!shooterButtonHeld);
+            if (!robot.isShooting()) {
+                robot.activateShooters(!shooterButtonHeld);
+            }
 
             // Gobbler (Toggle on Press)
             if (gamepad2.left_bumper) {
@@ -58,28 +85,34 @@ public class Driver extends ROMovementEngine {
                 robot.activateGobbler(gobbleOn);
             }
 
-            if(gamepad2.right_bumper) {
-                robot.activateShooters(true);
-            } else {
-                robot.activateShooters(false);
-            }
-
             // Shoot Sequence (Triangle)
-            if (gamepad2.triangle) {
-                stop();
-                robot.shootSequence();
+            // Runs in the background and moves on as soon as the flywheels are ready
+            if (gamepad2.triangle && !lastTriangle) {
+                robot.startShootSequence();
             }
+            lastTriangle = gamepad2.triangle;
 
             // Cycle Indexer (Dpad Up)
-            if (gamepad2.dpad_up) {
+            // Runs in the background, so driving and intake keep going while it turns
+            if (gamepad2.dpad_up && !lastDpadUp) {
                 robot.cycleIndexer();
             }
+            lastDpadUp = gamepad2.dpad_up;
+
+            t = profiler.lap(LoopProfiler.OUTPUT, t);
 
             // 5. STATUS TELEMETRY
-            telemetry.addData("Alpha Sensor", robot.ballColorSensor.alpha());
-            telemetry.addData("Gobbler State", gobbleOn);
-            telemetry.addLine("Christian likes feet");
-            telemetry.update();
+            telemetryPipeline.set(alphaSlot, robot.ballColorSensor.alpha());
+            telemetryPipeline.setText(gobblerSlot, gobbleOn ? "true" : "false");
+            telemetryPipeline.set(loopSlot, robot.bulkReader.getLoopHz());
+            telemetryPipeline.set(savedSlot, robot.driveOutput.getSavedPerSecond());
+            telemetryPipeline.set(poseSlot, localizer.getX(), localizer.getY(), Math.toDegrees(localizer.getHeading()));
+            if (robot.imuReader.isStale()) {
+                telemetryPipeline.show(staleSlot);
+            } else {
+                telemetryPipeline.hide(staleSlot);
+            }
+            profiler.lap(LoopProfiler.TELEMETRY, t);
         }
     }
 }
\ No newline at end of file
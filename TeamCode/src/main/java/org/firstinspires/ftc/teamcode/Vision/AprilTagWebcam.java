@@ -8,6 +8,10 @@ import org.firstinspires.ftc.robotcore.external.Telemetry;
 import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName;
 import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
 import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.Position;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.TelemetryPipeline;
 import org.firstinspires.ftc.vision.VisionPortal;
 import org.firstinspires.ftc.vision.apriltag.AprilTagDetection;
 import org.firstinspires.ftc.vision.apriltag.AprilTagProcessor;
@@ -21,6 +25,8 @@ public class AprilTagWebcam {
     private List<AprilTagDetection> detectedAprilTags = new ArrayList<>();
 
     private Telemetry telemetry;
+    private TelemetryPipeline pipeline;
+    private int idSlot, nameSlot, xyzSlot, prySlot, rbeSlot, centerSlot;
 
     public void init(HardwareMap hwMap, Telemetry telemetry) {
 
@@ -32,6 +38,10 @@ public class AprilTagWebcam {
                 .setDrawAxes(true)
                 .setDrawCubeProjection(true)
                 .setOutputUnits(DistanceUnit.CM, AngleUnit.DEGREES)
+                // Lets the processor work out detection.robotPose for the localizer
+                .setCameraPose(
+                        new Position(DistanceUnit.CM, RobotConfig.cameraX, RobotConfig.cameraY, RobotConfig.cameraZ, 0),
+                        new YawPitchRollAngles(AngleUnit.DEGREES, RobotConfig.cameraYaw, RobotConfig.cameraPitch, RobotConfig.cameraRoll, 0))
                 .build();
         VisionPortal.Builder builder = new VisionPortal.Builder();
         builder.setCamera(hwMap.get(WebcamName.class, "Webcam 1"));
@@ -41,6 +51,19 @@ public class AprilTagWebcam {
         visionPortal = builder.build();
     }
 
+    /**
+     * Route detection telemetry through a pipeline instead of formatting it on the caller's thread.
+     */
+    public void attachTelemetry(TelemetryPipeline pipeline) {
+        this.pipeline = pipeline;
+        idSlot = pipeline.slot("Tag ID", "%.0f");
+        nameSlot = pipeline.slot("Tag", "%s");
+        xyzSlot = pipeline.slot("XYZ (cm)", "%6.1f %6.1f %6.1f");
+        prySlot = pipeline.slot("PRY (deg)", "%6.1f %6.1f %6.1f");
+        rbeSlot = pipeline.slot("RBE (cm, deg, deg)", "%6.1f %6.1f %6.1f");
+        centerSlot = pipeline.slot("Center (pixels)", "%6.0f %6.0f");
+    }
+
     public void update() throws NullPointerException{
         detectedAprilTags = aprilTagProcessor.getDetections();
     }
@@ -70,6 +93,10 @@ public class AprilTagWebcam {
 
     public void displayDetectionTelemetry(AprilTagDetection detectedId) {
         if (detectedId == null) {return;}
+        if (pipeline != null) {
+            recordDetection(detectedId);
+            return;
+        }
         if (detectedId.metadata != null) {
             telemetry.addLine(String.format("\n==== (ID %d) %s", detectedId.id, detectedId.metadata.name));
             telemetry.addLine(String.format("XYZ %6.1f %6.1f %6.1f  (inch)", detectedId.ftcPose.x, detectedId.ftcPose.y, detectedId.ftcPose.z));
@@ -81,6 +108,24 @@ public class AprilTagWebcam {
         }
     }
 
+    // Only stores numbers; the pipeline does the formatting on its own thread
+    private void recordDetection(AprilTagDetection detectedId) {
+        pipeline.set(idSlot, detectedId.id);
+        if (detectedId.metadata != null) {
+            pipeline.setText(nameSlot, detectedId.metadata.name);
+            pipeline.set(xyzSlot, detectedId.ftcPose.x, detectedId.ftcPose.y, detectedId.ftcPose.z);
+            pipeline.set(prySlot, detectedId.ftcPose.pitch, detectedId.ftcPose.roll, detectedId.ftcPose.yaw);
+            pipeline.set(rbeSlot, detectedId.ftcPose.range, detectedId.ftcPose.bearing, detectedId.ftcPose.elevation);
+            pipeline.hide(centerSlot);
+        } else {
+            pipeline.setText(nameSlot, "Unknown");
+            pipeline.set(centerSlot, detectedId.center.x, detectedId.center.y);
+            pipeline.hide(xyzSlot);
+            pipeline.hide(prySlot);
+            pipeline.hide(rbeSlot);
+        }
+    }
+
     public void close() {
         if(visionPortal == null) return;
         visionPortal.close();
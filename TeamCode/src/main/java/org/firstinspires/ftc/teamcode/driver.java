@@ -39,6 +39,8 @@ public class driver extends OpMode{
 
         @Override
         public void loop() {
+            robot.bulkReader.update();
+            robot.update();
             aprilTagWebcam.update();
 
             AprilTagDetection id20 = aprilTagWebcam.getTagBySpecificId(20);
@@ -64,39 +66,35 @@ public class driver extends OpMode{
             telemetry.addData("Alpha", robot.ballColorSensor.alpha());
 
             shootOn = gamepad2.right_bumper;
-            robot.activateShooters(!shootOn);
+            if(!robot.isShooting()){
+                robot.activateShooters(!shootOn);
+            }
 
             gobbleOn = gamepad2.left_bumper && !gobbleOn;
             robot.activateGobbler(gobbleOn);
 
             shootSequenceOn = gamepad2.triangle;
+            // The shoot sequence runs in the background too, robot.update() moves it along
             if(shootSequenceOn){
-                try {
-
-                    frontLeftPower = 0;
-                    frontRightPower = 0;
-                    backLeftPower = 0;
-                    backRightPower = 0;
-                    robot.shootSequence();
-                    shootSequenceOn = false;
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+                robot.startShootSequence();
+                shootSequenceOn = false;
             }
 
+            // The indexer moves in the background now, so only start a cycle once the last one is done
             cycleIndexerGobbleOn = gamepad2.dpad_up;
-            if(cycleIndexerGobbleOn){
-                try {
-                    robot.cycleIndexer();
-                    cycleIndexerGobbleOn = false;
-                }  catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+            if(cycleIndexerGobbleOn && !robot.indexerController.isBusy()){
+                robot.cycleIndexer();
+                cycleIndexerGobbleOn = false;
             }
 
             telemetry.addLine("Christian likes feet");
             telemetry.update();
         }
+    @Override
+    public void stop() {
+        robot.close();
+    }
+
     private void hapticFeedbackGamepad(int gamePad) {
         if(gamePad == 1) {
             gamepad1.rumble(500);
@@ -0,0 +1,32 @@
+package org.firstinspires.ftc.teamcode.Crawler.Diagnostics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import org.junit.Test;
+
+/**
+ * {@link AllocationCounter} has to see real allocations, or the zero-allocation tests that
+ * rely on it pass for nothing.
+ */
+public class AllocationCounterTest {
+    private static volatile Object sink;
+
+    @Test
+    public void seesAnAllocation() {
+        long count = AllocationCounter.count(() -> sink = new long[64]);
+        assumeTrue("this JVM can't count allocations", count != AllocationCounter.UNAVAILABLE);
+        assertTrue("counted " + count + " " + AllocationCounter.unit(), count > 0);
+    }
+
+    @Test
+    public void countsNothingForPlainArithmetic() {
+        long[] values = new long[64];
+        long count = AllocationCounter.count(() -> {
+            for (int i = 0; i < values.length; i++) values[i] = values[i] * 31 + i;
+        });
+        assumeTrue(count != AllocationCounter.UNAVAILABLE);
+        assertEquals(0, count);
+    }
+}
@@ -0,0 +1,167 @@
+package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.qualcomm.robotcore.hardware.ColorSensor;
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorEx;
+import com.qualcomm.robotcore.hardware.HardwareMap;
+import com.qualcomm.robotcore.hardware.IMU;
+import com.qualcomm.robotcore.hardware.Servo;
+import com.qualcomm.robotcore.hardware.VoltageSensor;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.firstinspires.ftc.teamcode.Crawler.Control.MotionProfile;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.AllocationCounter;
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.LoopProfiler;
+import org.firstinspires.ftc.teamcode.Crawler.Path.SplinePath;
+import org.firstinspires.ftc.teamcode.Crawler.Robot;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A whole control cycle of path following must not allocate, or the GC ends up pausing
+ * mid-path on the robot: the bulk read, {@link Robot#update()} and the {@link PathController}
+ * tick (markers, progress, lookahead, heading, profile, drive output), on a real {@link Robot}
+ * built from a fake hardware map.
+ */
+public class FollowerAllocationTest {
+    private static final double DT = 0.02;
+    private static final int WARMUP_TICKS = 3000;
+    private static final int COUNTED_TICKS = 500;
+    private static final int TICKS_PER_CYCLE = 13; // about 1 cm per 10 cycles on the dead wheels
+
+    private final FakeMotor frontLeft = motor(), frontRight = motor(), backLeft = motor(), backRight = motor();
+    private final FakeMotor shooterLeft = motor(), shooterRight = motor();
+    private Robot robot;
+    private boolean finished;
+
+    private double savedTrackWidth;
+
+    /**
+     * Drive motors and dead wheels for the cycle itself. A Mockito mock records every call it
+     * gets, which allocates, so what a cycle touches lives in final methods: Mockito's default
+     * subclass mocks can't intercept those, and only the rest of {@link DcMotorEx} is mocked.
+     */
+    abstract static class FakeMotor implements DcMotorEx {
+        int position;
+        double power;
+
+        @Override
+        public final int getCurrentPosition() {
+            return position;
+        }
+
+        @Override
+        public final double getVelocity() {
+            return 0;
+        }
+
+        @Override
+        public final void setPower(double power) {
+            this.power = power;
+        }
+
+        @Override
+        public final double getPower() {
+            return power;
+        }
+    }
+
+    private static FakeMotor motor() {
+        return mock(FakeMotor.class, RETURNS_DEEP_STUBS); // deep stubs give FTCLib a motor type
+    }
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        savedTrackWidth = RobotConfig.TRACK_WIDTH;
+        RobotConfig.TRACK_WIDTH = 30; // heading from the dead wheels, like a tuned robot
+
+        HardwareMap hardwareMap = mock(HardwareMap.class);
+        when(hardwareMap.get(DcMotor.class, "frontLeft")).thenReturn(frontLeft);
+        when(hardwareMap.get(DcMotor.class, "frontRight")).thenReturn(frontRight);
+        when(hardwareMap.get(DcMotor.class, "backLeft")).thenReturn(backLeft);
+        when(hardwareMap.get(DcMotor.class, "backRight")).thenReturn(backRight);
+        when(hardwareMap.get(DcMotorEx.class, "leftShoot")).thenReturn(shooterLeft);
+        when(hardwareMap.get(DcMotorEx.class, "rightShoot")).thenReturn(shooterRight);
+        when(hardwareMap.get(DcMotor.class, "indexer")).thenReturn(mock(DcMotor.class));
+        when(hardwareMap.get(DcMotor.class, "gobbler")).thenReturn(mock(DcMotor.class));
+        when(hardwareMap.get(ColorSensor.class, "colorSensor")).thenReturn(mock(ColorSensor.class));
+        when(hardwareMap.get(Servo.class, "lifter")).thenReturn(mock(Servo.class));
+
+        IMU imu = mock(IMU.class);
+        when(imu.getRobotYawPitchRollAngles()).thenReturn(new YawPitchRollAngles(AngleUnit.DEGREES, 0, 0, 0, 0));
+        when(imu.getRobotAngularVelocity(any())).thenReturn(new AngularVelocity(AngleUnit.DEGREES, 0, 0, 0, 0));
+        when(hardwareMap.get(IMU.class, "imu")).thenReturn(imu);
+
+        hardwareMap.voltageSensor = mock(HardwareMap.DeviceMapping.class);
+        when(hardwareMap.voltageSensor.iterator())
+                .thenReturn(Collections.singletonList(mock(VoltageSensor.class)).iterator());
+
+        robot = new Robot(hardwareMap);
+    }
+
+    @After
+    public void tearDown() {
+        robot.close();
+        RobotConfig.TRACK_WIDTH = savedTrackWidth;
+    }
+
+    @Test
+    public void controlCycleAllocatesNothing() {
+        double[] px = {0, 500, 1000, 1500, 2000};
+        double[] py = {0, 0, 0, 0, 0};
+        SplinePath spline = SplinePath.hermite(px, py, new double[px.length]);
+        MotionProfile profile = MotionProfile.trapezoid(spline.getLength(), 80, 120, 0.01);
+        // None of these come due during the test, but the queue checks them every cycle
+        List<PathMarker> markers = Arrays.asList(
+                new PathMarker(95, () -> {}),
+                PathMarker.atDistance(1900, () -> {}),
+                PathMarker.atTime(600, () -> {}),
+                PathMarker.inRegion(1800, 300, 20, () -> {}));
+
+        robot.bulkReader.update();
+        robot.update();
+        PathController controller = new PathController(robot, robot.localizer, new LoopProfiler(false),
+                spline.toPurePursuitPath(RobotConfig.defaultLookAheadDistance), markers, null, profile,
+                RobotConfig.defaultLookAheadDistance);
+
+        runCycles(controller, WARMUP_TICKS);
+        long allocations = AllocationCounter.count(() -> runCycles(controller, COUNTED_TICKS));
+        assumeTrue("this JVM can't count allocations", allocations != AllocationCounter.UNAVAILABLE);
+
+        // The cycles did real work: still on the path, moving, and driving the wheels
+        assertFalse(finished);
+        assertTrue(robot.localizer.getX() > 100);
+        assertNotEquals(0, frontLeft.power, 0);
+        assertEquals("allocations per " + COUNTED_TICKS + " cycles, in " + AllocationCounter.unit(), 0, allocations);
+    }
+
+    // What the Follower's scheduler runs each tick, with the dead wheels rolling straight ahead
+    private void runCycles(PathController controller, int cycles) {
+        for (int i = 0; i < cycles; i++) {
+            frontLeft.position += TICKS_PER_CYCLE;  // left dead wheel
+            backRight.position += TICKS_PER_CYCLE;  // right dead wheel
+            robot.bulkReader.update();
+            robot.update();
+            finished |= controller.update(DT);
+        }
+    }
+}
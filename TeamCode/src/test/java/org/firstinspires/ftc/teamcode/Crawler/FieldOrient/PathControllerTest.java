@@ -0,0 +1,67 @@
+package org.firstinspires.ftc.teamcode.Crawler.FieldOrient;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.firstinspires.ftc.teamcode.Crawler.Diagnostics.LoopProfiler;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.Localizer;
+import org.firstinspires.ftc.teamcode.Crawler.Localization.MutablePose;
+import org.firstinspires.ftc.teamcode.Crawler.Path.PurePursuitPath;
+import org.firstinspires.ftc.teamcode.Crawler.Robot;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * When a {@link PathController} counts the path as done, with the robot moved along by hand.
+ */
+public class PathControllerTest {
+    private static final double DT = 0.02;
+
+    private final Robot robot = mock(Robot.class);
+    private final Localizer localizer = mock(Localizer.class);
+    private double x, y;
+
+    @Before
+    public void setUp() {
+        when(localizer.getX()).thenAnswer(call -> x);
+        when(localizer.getY()).thenAnswer(call -> y);
+        when(localizer.getPose(any(MutablePose.class))).thenCallRealMethod();
+    }
+
+    private PathController follow(double[] xs, double[] ys) {
+        return new PathController(robot, localizer, new LoopProfiler(false),
+                new PurePursuitPath(xs, ys, 8), null, null, null, 5);
+    }
+
+    @Test
+    public void loopPathIsNotDoneAtItsStart() {
+        // A square that ends where it starts
+        double[] xs = {0, 100, 100, 0, 0};
+        double[] ys = {0, 0, 100, 100, 0};
+        PathController controller = follow(xs, ys);
+        assertFalse("finished on the first tick", controller.update(DT));
+
+        // Walk the square a centimeter at a time; it's only done back at the start
+        for (int i = 0; i < xs.length - 1; i++) {
+            for (int step = 1; step <= 100; step++) {
+                x = xs[i] + (xs[i + 1] - xs[i]) * step / 100.0;
+                y = ys[i] + (ys[i + 1] - ys[i]) * step / 100.0;
+                boolean done = controller.update(DT);
+                boolean last = i == xs.length - 2 && step > 98;
+                assertTrue("done at " + x + ", " + y + " is " + done, done == last);
+            }
+        }
+    }
+
+    @Test
+    public void openPathIsDoneWithinTheThresholdOfItsEnd() {
+        PathController controller = follow(new double[] {0, 50, 100}, new double[] {0, 0, 0});
+        assertFalse(controller.update(DT));
+
+        x = 99; // RobotConfig.FINISH_THRESHOLD_CM short
+        assertTrue(controller.update(DT));
+    }
+}
@@ -0,0 +1,126 @@
+package org.firstinspires.ftc.teamcode.Crawler.Hardware;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.qualcomm.hardware.lynx.LynxModule;
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+
+/**
+ * {@link BulkReader} against fake hubs and motors: one cache clear per cycle, before any
+ * encoder is read, and a snapshot holding exactly that cycle's values.
+ */
+public class BulkReaderTest {
+    private final LynxModule controlHub = mock(LynxModule.class);
+    private final LynxModule expansionHub = mock(LynxModule.class);
+    private final DcMotor left = mock(DcMotor.class);
+    private final DcMotor right = mock(DcMotor.class);
+    private final DcMotor center = mock(DcMotor.class);
+    private final ImuReader imu = mock(ImuReader.class);
+    private boolean savedBulkReads;
+
+    @Before
+    public void setUp() {
+        savedBulkReads = RobotConfig.useBulkReads;
+        when(imu.getLatest(any(HeadingSample.class)))
+                .thenAnswer(call -> call.<HeadingSample>getArgument(0).set(12.5, -3, 0));
+    }
+
+    @After
+    public void tearDown() {
+        RobotConfig.useBulkReads = savedBulkReads;
+    }
+
+    private BulkReader reader() {
+        return new BulkReader(Arrays.asList(controlHub, expansionHub), left, right, center, imu);
+    }
+
+    @Test
+    public void switchesEveryHubToManualCaching() {
+        RobotConfig.useBulkReads = true;
+        BulkReader reader = reader();
+        verify(controlHub).setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+        verify(expansionHub).setBulkCachingMode(LynxModule.BulkCachingMode.MANUAL);
+        assertTrue(reader.isManual());
+    }
+
+    @Test
+    public void clearsTheCacheOncePerCycleBeforeReadingEncoders() {
+        RobotConfig.useBulkReads = true;
+        BulkReader reader = reader();
+        reader.update();
+
+        InOrder order = inOrder(controlHub, expansionHub, left, right, center);
+        order.verify(controlHub).clearBulkCache();
+        order.verify(expansionHub).clearBulkCache();
+        order.verify(left).getCurrentPosition();
+        order.verify(right).getCurrentPosition();
+        order.verify(center).getCurrentPosition();
+
+        reader.update();
+        verify(controlHub, times(2)).clearBulkCache();
+        verify(left, times(2)).getCurrentPosition();
+    }
+
+    @Test
+    public void snapshotHoldsOneCycleOfReadings() {
+        RobotConfig.useBulkReads = true;
+        when(left.getCurrentPosition()).thenReturn(1200);
+        when(right.getCurrentPosition()).thenReturn(1180);
+        when(center.getCurrentPosition()).thenReturn(-40);
+        BulkReader reader = reader();
+
+        HardwareSnapshot snapshot = reader.update();
+        assertEquals(1200, snapshot.leftTicks);
+        assertEquals(1180, snapshot.rightTicks);
+        assertEquals(-40, snapshot.centerTicks);
+        assertEquals(1190, snapshot.forwardTicks(), 0);
+        assertEquals(12.5, snapshot.yawDegrees, 0);
+        assertEquals(-3, snapshot.yawRateDegPerSec, 0);
+        assertSame(snapshot, reader.getLatest());
+
+        // The next cycle refills the same snapshot instead of making a new one
+        when(left.getCurrentPosition()).thenReturn(1300);
+        assertSame(snapshot, reader.update());
+        assertEquals(1300, snapshot.leftTicks);
+        assertEquals(1180, snapshot.rightTicks);
+    }
+
+    @Test
+    public void measuresTheLoopRate() throws InterruptedException {
+        BulkReader reader = reader();
+        reader.update();
+        assertEquals(0, reader.getLoopHz(), 0);
+        Thread.sleep(10);
+        reader.update();
+        assertTrue(reader.getLoopHz() > 0 && reader.getLoopHz() <= 100);
+
+        reader.resetLoopTiming();
+        assertEquals(0, reader.getLoopHz(), 0);
+    }
+
+    @Test
+    public void leavesTheCacheAloneWhenBulkReadsAreOff() {
+        RobotConfig.useBulkReads = false;
+        BulkReader reader = reader();
+        reader.update();
+        verify(controlHub).setBulkCachingMode(LynxModule.BulkCachingMode.OFF);
+        verify(controlHub, never()).clearBulkCache();
+    }
+}
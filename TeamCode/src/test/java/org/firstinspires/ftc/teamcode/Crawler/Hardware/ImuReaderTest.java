@@ -0,0 +1,63 @@
+package org.firstinspires.ftc.teamcode.Crawler.Hardware;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.qualcomm.robotcore.hardware.IMU;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.AngularVelocity;
+import org.firstinspires.ftc.robotcore.external.navigation.YawPitchRollAngles;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * {@link ImuReader} publishing from its own thread and copying the newest reading into a
+ * sample the caller owns.
+ */
+public class ImuReaderTest {
+    private final IMU imu = mock(IMU.class);
+    private final ImuReader reader = new ImuReader(imu);
+
+    @After
+    public void tearDown() {
+        reader.stop();
+    }
+
+    private void awaitSamples(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (reader.getSampleCount() < count && System.nanoTime() < deadline) Thread.sleep(1);
+        assertTrue("reader thread published nothing", reader.getSampleCount() >= count);
+    }
+
+    @Test
+    public void copiesTheNewestReadingIntoTheCallersSample() throws InterruptedException {
+        when(imu.getRobotYawPitchRollAngles()).thenReturn(new YawPitchRollAngles(AngleUnit.DEGREES, 30, 0, 0, 0));
+        when(imu.getRobotAngularVelocity(AngleUnit.DEGREES)).thenReturn(new AngularVelocity(AngleUnit.DEGREES, 0, 0, -5, 0));
+        reader.start();
+        awaitSamples(1);
+
+        HeadingSample sample = new HeadingSample();
+        assertSame(sample, reader.getLatest(sample));
+        assertEquals(30, sample.yawDegrees, 0);
+        assertEquals(-5, sample.yawRateDegPerSec, 0);
+        assertEquals(Math.toRadians(30), reader.getYawRadians(), 1e-12);
+        assertTrue(reader.getAgeMs() < 1000);
+    }
+
+    @Test
+    public void resetYawPublishesZeroRightAway() {
+        HeadingSample sample = new HeadingSample();
+        long before = reader.getLatest(sample).timestampNanos;
+        reader.resetYaw();
+
+        verify(imu).resetYaw();
+        reader.getLatest(sample);
+        assertEquals(0, sample.yawDegrees, 0);
+        assertTrue(sample.timestampNanos > before);
+    }
+}
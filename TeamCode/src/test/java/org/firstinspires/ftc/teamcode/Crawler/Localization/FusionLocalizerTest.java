@@ -0,0 +1,82 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.BulkReader;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.HardwareSnapshot;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.HeadingSample;
+import org.firstinspires.ftc.teamcode.Crawler.Hardware.ImuReader;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link FusionLocalizer} around a three-wheel localizer turning in place, with the heading
+ * from the wheels or, without a track width, from the IMU.
+ */
+public class FusionLocalizerTest {
+    private static final double TRACK_WIDTH = 30;
+    private static final int STEPS = 10;
+
+    private final BulkReader bulkReader = mock(BulkReader.class);
+    private final ImuReader imuReader = mock(ImuReader.class);
+    private final HardwareSnapshot snapshot = new HardwareSnapshot();
+    private double yawDegrees;
+    private long nanos;
+
+    @Before
+    public void setUp() {
+        when(bulkReader.getLatest()).thenReturn(snapshot);
+        when(imuReader.getLatest(any(HeadingSample.class))).thenAnswer(call -> {
+            HeadingSample sample = call.getArgument(0);
+            sample.yawDegrees = yawDegrees;
+            sample.timestampNanos = nanos;
+            return sample;
+        });
+    }
+
+    private FusionLocalizer fusion(double trackWidth) {
+        return new FusionLocalizer(new ThreeWheelLocalizer(bulkReader, 1, trackWidth, 0, 1, 1, 1), imuReader, null);
+    }
+
+    // Turn 90 degrees counter-clockwise in place, wheels and IMU agreeing
+    private void turnLeft(FusionLocalizer fusion) {
+        double wheelTravel = TRACK_WIDTH / 2 * Math.PI / 2;
+        for (int i = 0; i <= STEPS; i++) {
+            nanos = (i + 1) * 10_000_000L;
+            yawDegrees = 90.0 * i / STEPS;
+            snapshot.leftTicks = (int) Math.round(-wheelTravel * i / STEPS);
+            snapshot.rightTicks = (int) Math.round(wheelTravel * i / STEPS);
+            snapshot.yawDegrees = yawDegrees;
+            snapshot.timestampNanos = nanos;
+            fusion.update();
+        }
+    }
+
+    @Test
+    public void headingFromImuOdometryIsNotCorrectedByTheImuAgain() {
+        FusionLocalizer fusion = fusion(0);
+        turnLeft(fusion);
+
+        assertEquals(Math.PI / 2, fusion.getHeading(), 1e-9);
+        // Only the odometry steps touched the heading: start variance plus process noise
+        // (and the estimator's 1e-9 floor per step), no correction
+        double startVariance = RobotConfig.fusionStartHeadingStd * RobotConfig.fusionStartHeadingStd;
+        assertEquals(startVariance + RobotConfig.fusionOdoHeadingVariancePerRad * Math.PI / 2 + STEPS * 1e-9,
+                fusion.getEstimator().getCovariance(2, 2), 1e-12);
+    }
+
+    @Test
+    public void wheelHeadingIsCorrectedByTheImu() {
+        FusionLocalizer fusion = fusion(TRACK_WIDTH);
+        turnLeft(fusion);
+
+        assertEquals(Math.PI / 2, fusion.getHeading(), 0.02);
+        double imuVariance = RobotConfig.fusionImuHeadingStd * RobotConfig.fusionImuHeadingStd;
+        assertTrue(fusion.getEstimator().getCovariance(2, 2) < imuVariance);
+    }
+}
@@ -0,0 +1,115 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.qualcomm.hardware.digitalchickenlabs.OctoQuad;
+
+import org.junit.Test;
+
+/**
+ * {@link OctoQuadLocalizer} against a fake OctoQuad: unit conversion, one block read per
+ * update, and what happens while calibrating or when a block fails its CRC.
+ */
+public class OctoQuadLocalizerTest {
+    /** Fills every block with whatever the test set up, and records pose writes. */
+    private static class FakeOctoQuad implements OctoQuadLocalizer.Device {
+        OctoQuad.LocalizerStatus status = OctoQuad.LocalizerStatus.RUNNING;
+        boolean crcOk = true;
+        short xMm, yMm, vxMmS, vyMmS;
+        float heading, omega;
+        int reads;
+        int poseXMm, poseYMm;
+        float poseHeading;
+
+        @Override
+        public void readLocalizerData(OctoQuad.LocalizerDataBlock block) {
+            reads++;
+            block.localizerStatus = status;
+            block.crcOk = crcOk;
+            block.posX_mm = xMm;
+            block.posY_mm = yMm;
+            block.heading_rad = heading;
+            block.velX_mmS = vxMmS;
+            block.velY_mmS = vyMmS;
+            block.velHeading_radS = omega;
+        }
+
+        @Override
+        public void setLocalizerPose(int xMm, int yMm, float headingRad) {
+            poseXMm = xMm;
+            poseYMm = yMm;
+            poseHeading = headingRad;
+        }
+    }
+
+    private final FakeOctoQuad device = new FakeOctoQuad();
+    private final OctoQuadLocalizer localizer = new OctoQuadLocalizer(device);
+
+    @Test
+    public void readsPoseAndVelocityInCentimeters() {
+        device.xMm = 1234;
+        device.yMm = -560;
+        device.heading = 1.25f;
+        device.vxMmS = 300;
+        device.vyMmS = -45;
+        device.omega = -0.5f;
+
+        localizer.update();
+        assertEquals(1, device.reads);
+        assertTrue(localizer.isReady());
+        assertEquals(123.4, localizer.getX(), 1e-9);
+        assertEquals(-56.0, localizer.getY(), 1e-9);
+        assertEquals(1.25, localizer.getHeading(), 1e-6);
+        assertEquals(30.0, localizer.getVelocityX(), 1e-9);
+        assertEquals(-4.5, localizer.getVelocityY(), 1e-9);
+        assertEquals(-0.5, localizer.getAngularVelocity(), 1e-6);
+        assertTrue(localizer.getTimestampNanos() > 0);
+    }
+
+    @Test
+    public void holdsStillUntilCalibrated() {
+        device.status = OctoQuad.LocalizerStatus.CALIBRATING_IMU;
+        device.xMm = 500;
+
+        localizer.update();
+        assertFalse(localizer.isReady());
+        assertEquals(OctoQuad.LocalizerStatus.CALIBRATING_IMU, localizer.getStatus());
+        assertEquals(0, localizer.getX(), 0);
+
+        device.status = OctoQuad.LocalizerStatus.RUNNING;
+        localizer.update();
+        assertTrue(localizer.isReady());
+        assertEquals(50, localizer.getX(), 1e-9);
+    }
+
+    @Test
+    public void keepsTheLastGoodPoseWhenACrcFails() {
+        device.xMm = 100;
+        localizer.update();
+
+        device.crcOk = false;
+        device.xMm = 9999;
+        device.status = OctoQuad.LocalizerStatus.FAULT_NO_IMU;
+        localizer.update();
+
+        assertEquals(10, localizer.getX(), 1e-9);
+        assertTrue(localizer.isReady()); // a corrupt block says nothing about the status either
+        assertEquals(1, localizer.getBadPackets());
+        assertEquals(2, localizer.getTotalPackets());
+    }
+
+    @Test
+    public void setPoseWritesMillimetersToTheDevice() {
+        localizer.setPose(12.34, -5.06, 1.5);
+        assertEquals(123, device.poseXMm);
+        assertEquals(-51, device.poseYMm);
+        assertEquals(1.5f, device.poseHeading, 0);
+
+        // Reported straight away, before the device catches up
+        assertEquals(12.34, localizer.getX(), 1e-9);
+        assertEquals(-5.06, localizer.getY(), 1e-9);
+        assertEquals(1.5, localizer.getHeading(), 1e-9);
+    }
+}
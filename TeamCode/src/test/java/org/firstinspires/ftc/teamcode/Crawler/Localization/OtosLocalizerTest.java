@@ -0,0 +1,120 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.qualcomm.hardware.sparkfun.SparkFunOTOS;
+
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit;
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit;
+import org.firstinspires.ftc.teamcode.Crawler.RobotConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+/**
+ * {@link OtosLocalizer} against a mock OTOS: one burst read per update, values passed through
+ * in cm and radians, and the calibration from {@link RobotConfig} applied before tracking starts.
+ */
+public class OtosLocalizerTest {
+    private final OtosLocalizer.Device device = mock(OtosLocalizer.Device.class);
+    private double savedOffsetX, savedOffsetY, savedOffsetHeadingDeg, savedLinearScalar, savedAngularScalar;
+
+    @Before
+    public void setUp() {
+        savedOffsetX = RobotConfig.otosOffsetX;
+        savedOffsetY = RobotConfig.otosOffsetY;
+        savedOffsetHeadingDeg = RobotConfig.otosOffsetHeadingDeg;
+        savedLinearScalar = RobotConfig.otosLinearScalar;
+        savedAngularScalar = RobotConfig.otosAngularScalar;
+    }
+
+    @After
+    public void tearDown() {
+        RobotConfig.otosOffsetX = savedOffsetX;
+        RobotConfig.otosOffsetY = savedOffsetY;
+        RobotConfig.otosOffsetHeadingDeg = savedOffsetHeadingDeg;
+        RobotConfig.otosLinearScalar = savedLinearScalar;
+        RobotConfig.otosAngularScalar = savedAngularScalar;
+    }
+
+    private void deviceReports(double x, double y, double h, double vx, double vy, double vh, double ax, double ay, double ah) {
+        doAnswer(call -> {
+            set(call.getArgument(0), x, y, h);
+            set(call.getArgument(1), vx, vy, vh);
+            set(call.getArgument(2), ax, ay, ah);
+            return null;
+        }).when(device).getPosVelAcc(any(), any(), any());
+    }
+
+    private static void set(SparkFunOTOS.Pose2D pose, double x, double y, double h) {
+        pose.x = x;
+        pose.y = y;
+        pose.h = h;
+    }
+
+    @Test
+    public void readsPoseVelocityAndAccelerationInOneBurst() {
+        deviceReports(10, -20, 0.5, 30, 40, -1, 5, 6, 0.25);
+        OtosLocalizer localizer = new OtosLocalizer(device);
+
+        localizer.update();
+        verify(device, times(1)).getPosVelAcc(any(), any(), any());
+        assertEquals(10, localizer.getX(), 0);
+        assertEquals(-20, localizer.getY(), 0);
+        assertEquals(0.5, localizer.getHeading(), 0);
+        assertEquals(30, localizer.getVelocityX(), 0);
+        assertEquals(40, localizer.getVelocityY(), 0);
+        assertEquals(-1, localizer.getAngularVelocity(), 0);
+        assertEquals(5, localizer.getAccelerationX(), 0);
+        assertEquals(6, localizer.getAccelerationY(), 0);
+        assertEquals(0.25, localizer.getAngularAcceleration(), 0);
+    }
+
+    @Test
+    public void setPoseMovesTheSensorAndTheEstimate() {
+        OtosLocalizer localizer = new OtosLocalizer(device);
+        localizer.setPose(50, 25, -1.2);
+
+        ArgumentCaptor<SparkFunOTOS.Pose2D> sent = ArgumentCaptor.forClass(SparkFunOTOS.Pose2D.class);
+        verify(device).setPosition(sent.capture());
+        assertEquals(50, sent.getValue().x, 0);
+        assertEquals(25, sent.getValue().y, 0);
+        assertEquals(-1.2, sent.getValue().h, 0);
+        assertEquals(50, localizer.getX(), 0);
+        assertEquals(25, localizer.getY(), 0);
+        assertEquals(-1.2, localizer.getHeading(), 0);
+    }
+
+    @Test
+    public void createAppliesTheCalibrationBeforeTracking() {
+        RobotConfig.otosOffsetX = 3;
+        RobotConfig.otosOffsetY = -7.5;
+        RobotConfig.otosOffsetHeadingDeg = 90;
+        RobotConfig.otosLinearScalar = 1.05;
+        RobotConfig.otosAngularScalar = 0.98;
+        SparkFunOTOS otos = mock(SparkFunOTOS.class);
+
+        OtosLocalizer.create(otos);
+
+        InOrder order = inOrder(otos);
+        order.verify(otos).setLinearUnit(DistanceUnit.CM);
+        order.verify(otos).setAngularUnit(AngleUnit.RADIANS);
+        ArgumentCaptor<SparkFunOTOS.Pose2D> offset = ArgumentCaptor.forClass(SparkFunOTOS.Pose2D.class);
+        order.verify(otos).setOffset(offset.capture());
+        order.verify(otos).setLinearScalar(1.05);
+        order.verify(otos).setAngularScalar(0.98);
+        order.verify(otos).calibrateImu();
+        order.verify(otos).resetTracking();
+        assertEquals(3, offset.getValue().x, 0);
+        assertEquals(-7.5, offset.getValue().y, 0);
+        assertEquals(Math.PI / 2, offset.getValue().h, 1e-12);
+    }
+}
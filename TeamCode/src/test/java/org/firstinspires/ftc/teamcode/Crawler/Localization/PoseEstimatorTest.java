@@ -0,0 +1,107 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * {@link PoseEstimator} prediction and corrections, checked against the closed-form results
+ * for the simple cases.
+ */
+public class PoseEstimatorTest {
+    private static final double EPS = 1e-9;
+    private static final double GATE = 11.34;
+
+    @Test
+    public void predictDeadReckonsInTheFieldFrame() {
+        PoseEstimator filter = new PoseEstimator();
+        filter.reset(10, 20, Math.PI / 2, 0, 0);
+        filter.predict(30, 5, 0.1, 0, 0);
+
+        // Facing +y, forward is +y and strafe (left) is -x
+        assertEquals(5, filter.getX(), EPS);
+        assertEquals(50, filter.getY(), EPS);
+        assertEquals(Math.PI / 2 + 0.1, filter.getHeading(), EPS);
+    }
+
+    @Test
+    public void predictGrowsUncertaintyWithTravel() {
+        PoseEstimator filter = new PoseEstimator();
+        filter.reset(0, 0, 0, 1, 0.01);
+        filter.predict(100, 0, 0, 0.01, 0.002);
+
+        assertEquals(1 + 1 + 1e-6, filter.getCovariance(0, 0), EPS);
+        // Heading uncertainty spreads sideways the further the robot drives: 100^2 * 0.01 on top
+        assertEquals(1 + 1 + 100 + 1e-6, filter.getCovariance(1, 1), 1e-6);
+        assertEquals(100 * 0.01, filter.getCovariance(1, 2), EPS);
+        assertEquals(filter.getCovariance(1, 2), filter.getCovariance(2, 1), 0);
+    }
+
+    @Test
+    public void headingCorrectionWeighsByVariance() {
+        PoseEstimator filter = new PoseEstimator();
+        filter.reset(0, 0, 0, 1, 0.04);
+
+        assertTrue(filter.correctHeading(0.2, 0.04, GATE));
+        // Equal variances meet in the middle and halve the uncertainty
+        assertEquals(0.1, filter.getHeading(), EPS);
+        assertEquals(0.02, filter.getCovariance(2, 2), EPS);
+    }
+
+    @Test
+    public void headingCorrectionTakesTheShortWayAcrossPi() {
+        PoseEstimator filter = new PoseEstimator();
+        filter.reset(0, 0, Math.PI - 0.1, 1, 0.04);
+
+        assertTrue(filter.correctHeading(-Math.PI + 0.1, 0.04, GATE));
+        assertEquals(Math.PI, Math.abs(filter.getHeading()), 1e-6);
+    }
+
+    @Test
+    public void poseCorrectionMovesTowardTheTag() {
+        PoseEstimator filter = new PoseEstimator();
+        filter.reset(0, 0, 0, 4, 0.01);
+
+        assertTrue(filter.correctPose(6, -2, 0.05, 0, 0, 0, 12, 0.03, GATE));
+        // Independent axes: gain is P / (P + R)
+        assertEquals(6 * 4.0 / 16, filter.getX(), EPS);
+        assertEquals(-2 * 4.0 / 16, filter.getY(), EPS);
+        assertEquals(0.05 * 0.01 / 0.04, filter.getHeading(), EPS);
+        assertEquals(4 * 12.0 / 16, filter.getCovariance(0, 0), EPS);
+    }
+
+    @Test
+    public void poseCorrectionUsesThePriorForLateFrames() {
+        PoseEstimator filter = new PoseEstimator();
+        filter.reset(0, 0, 0, 4, 0.01);
+        filter.predict(20, 0, 0, 0, 0);
+
+        // The frame saw the robot where it was before the move; that agrees, so nothing changes
+        assertTrue(filter.correctPose(0, 0, 0, 0, 0, 0, 4, 0.01, GATE));
+        assertEquals(20, filter.getX(), EPS);
+        assertEquals(0, filter.getY(), EPS);
+    }
+
+    @Test
+    public void gateRejectsOutliersAndLeavesTheState() {
+        PoseEstimator filter = new PoseEstimator();
+        filter.reset(0, 0, 0, 1, 0.01);
+
+        assertFalse(filter.correctPose(80, 0, 0, 0, 0, 0, 1, 0.01, GATE));
+        assertEquals(80 * 80 / 2.0, filter.getLastGateDistance(), EPS);
+        assertEquals(0, filter.getX(), 0);
+        assertEquals(1, filter.getCovariance(0, 0), 0);
+
+        assertFalse(filter.correctHeading(1.5, 0.01, GATE));
+        assertEquals(0, filter.getHeading(), 0);
+    }
+
+    @Test
+    public void wrapsIntoHalfOpenRange() {
+        assertEquals(-Math.PI, PoseEstimator.wrap(Math.PI), EPS);
+        assertEquals(0.5, PoseEstimator.wrap(0.5 + 4 * Math.PI), EPS);
+        assertEquals(-0.5, PoseEstimator.wrap(-0.5 - 2 * Math.PI), EPS);
+    }
+}
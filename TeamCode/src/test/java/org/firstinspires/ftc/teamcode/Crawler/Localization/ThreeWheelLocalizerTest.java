@@ -0,0 +1,161 @@
+package org.firstinspires.ftc.teamcode.Crawler.Localization;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * {@link ThreeWheelLocalizer} fed synthetic encoder traces for moves whose end pose is known.
+ * Traces are cumulative tick counts, rounded the way real encoders would report them.
+ */
+public class ThreeWheelLocalizerTest {
+    private static final double CM_PER_TICK = 0.01;
+    private static final double TRACK_WIDTH = 30;
+    private static final double CENTER_OFFSET = 10;
+    private static final double TOLERANCE_CM = 0.05;
+    private static final double TOLERANCE_RAD = 1e-3;
+
+    private static ThreeWheelLocalizer localizer() {
+        return new ThreeWheelLocalizer(null, CM_PER_TICK, TRACK_WIDTH, CENTER_OFFSET, 1, 1, 1);
+    }
+
+    /**
+     * Drive a constant twist in {@code steps} updates, starting from the given tick counts.
+     * @param forward cm travelled forward, strafe cm to the left, turn radians counter-clockwise
+     */
+    private static void drive(ThreeWheelLocalizer localizer, int[] ticks, double forward, double strafe, double turn, int steps) {
+        double left0 = ticks[0], right0 = ticks[1], center0 = ticks[2];
+        for (int i = 1; i <= steps; i++) {
+            double f = (double) i / steps;
+            double left = forward * f - TRACK_WIDTH / 2 * turn * f;
+            double right = forward * f + TRACK_WIDTH / 2 * turn * f;
+            double center = strafe * f + CENTER_OFFSET * turn * f;
+            ticks[0] = (int) Math.round(left0 + left / CM_PER_TICK);
+            ticks[1] = (int) Math.round(right0 + right / CM_PER_TICK);
+            ticks[2] = (int) Math.round(center0 + center / CM_PER_TICK);
+            localizer.update(ticks[0], ticks[1], ticks[2], 0, i * 10_000_000L);
+        }
+    }
+
+    private static void assertPose(ThreeWheelLocalizer localizer, double x, double y, double heading) {
+        assertEquals("x", x, localizer.getX(), TOLERANCE_CM);
+        assertEquals("y", y, localizer.getY(), TOLERANCE_CM);
+        assertEquals("heading", heading, localizer.getHeading(), TOLERANCE_RAD);
+    }
+
+    @Test
+    public void firstReadingOnlySetsTheReference() {
+        ThreeWheelLocalizer localizer = localizer();
+        localizer.update(5000, -3000, 1234, 0, 0);
+        assertPose(localizer, 0, 0, 0);
+    }
+
+    @Test
+    public void drivesStraight() {
+        ThreeWheelLocalizer localizer = localizer();
+        int[] ticks = {5000, -3000, 1234};
+        localizer.update(ticks[0], ticks[1], ticks[2], 0, 0);
+        drive(localizer, ticks, 100, 0, 0, 100);
+        assertPose(localizer, 100, 0, 0);
+    }
+
+    @Test
+    public void strafes() {
+        ThreeWheelLocalizer localizer = localizer();
+        int[] ticks = new int[3];
+        localizer.update(0, 0, 0, 0, 0);
+        drive(localizer, ticks, 0, -40, 0, 50);
+        assertPose(localizer, 0, -40, 0);
+    }
+
+    @Test
+    public void turnsInPlaceWithoutDrifting() {
+        // The center wheel rolls CENTER_OFFSET * angle while turning; that must not read as a strafe
+        ThreeWheelLocalizer localizer = localizer();
+        int[] ticks = new int[3];
+        localizer.update(0, 0, 0, 0, 0);
+        drive(localizer, ticks, 0, 0, Math.PI / 2, 90);
+        assertPose(localizer, 0, 0, Math.PI / 2);
+    }
+
+    @Test
+    public void followsAnArcInsteadOfItsChord() {
+        // Quarter circle of radius 50 turning left: ends at (50, 50) facing +y
+        double radius = 50;
+        ThreeWheelLocalizer localizer = localizer();
+        int[] ticks = new int[3];
+        localizer.update(0, 0, 0, 0, 0);
+        drive(localizer, ticks, radius * Math.PI / 2, 0, Math.PI / 2, 200);
+        assertPose(localizer, radius, radius, Math.PI / 2);
+    }
+
+    @Test
+    public void arcComesOutTheSameAtAnyUpdateRate() {
+        // The pose exponential is exact for a constant twist, so one big step equals many small ones
+        double[] end = null;
+        for (int steps : new int[] {1, 5, 500}) {
+            ThreeWheelLocalizer localizer = localizer();
+            int[] ticks = new int[3];
+            localizer.update(0, 0, 0, 0, 0);
+            drive(localizer, ticks, 80, 20, 1.2, steps);
+            if (end == null) {
+                end = new double[] {localizer.getX(), localizer.getY(), localizer.getHeading()};
+            } else {
+                assertPose(localizer, end[0], end[1], end[2]);
+            }
+        }
+    }
+
+    @Test
+    public void headingWrapsAroundPi() {
+        ThreeWheelLocalizer localizer = localizer();
+        int[] ticks = new int[3];
+        localizer.update(0, 0, 0, 0, 0);
+        drive(localizer, ticks, 0, 0, 1.5 * Math.PI, 270);
+        assertPose(localizer, 0, 0, -Math.PI / 2);
+    }
+
+    @Test
+    public void appliesEncoderSigns() {
+        ThreeWheelLocalizer localizer = new ThreeWheelLocalizer(null, CM_PER_TICK, TRACK_WIDTH, CENTER_OFFSET, -1, -1, -1);
+        localizer.update(0, 0, 0, 0, 0);
+        localizer.update(-10_000, -10_000, -2_000, 0, 10_000_000L);
+        assertPose(localizer, 100, 20, 0);
+    }
+
+    @Test
+    public void usesTheImuWithoutATrackWidth() {
+        ThreeWheelLocalizer localizer = new ThreeWheelLocalizer(null, CM_PER_TICK, 0, 0, 1, 1, 1);
+        localizer.update(0, 0, 0, 0.3, 0);
+        // Wheels say no turn; the IMU turned 0.2 rad
+        localizer.update(1000, 1000, 0, 0.5, 10_000_000L);
+        assertEquals(0.2, localizer.getHeading(), TOLERANCE_RAD);
+    }
+
+    @Test
+    public void setPoseKeepsTheEncoderReference() {
+        ThreeWheelLocalizer localizer = localizer();
+        int[] ticks = new int[3];
+        localizer.update(0, 0, 0, 0, 0);
+        drive(localizer, ticks, 30, 0, 0, 10);
+        localizer.setPose(100, 50, Math.PI / 2);
+        drive(localizer, ticks, 10, 0, 0, 10);
+        assertPose(localizer, 100, 60, Math.PI / 2);
+    }
+
+    @Test
+    public void resetReferenceAbsorbsAnEncoderReset() {
+        ThreeWheelLocalizer localizer = localizer();
+        int[] ticks = new int[3];
+        localizer.update(0, 0, 0, 0, 0);
+        drive(localizer, ticks, 40, 0, 0, 10);
+
+        // Encoders zeroed in hardware: without the reset this would read as driving back 40 cm
+        localizer.resetReference();
+        ticks = new int[3];
+        localizer.update(0, 0, 0, 0, 200_000_000L);
+        assertPose(localizer, 40, 0, 0);
+        drive(localizer, ticks, 10, 0, 0, 10);
+        assertPose(localizer, 50, 0, 0);
+    }
+}